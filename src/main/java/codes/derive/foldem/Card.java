@@ -16,6 +16,9 @@
  */
 package codes.derive.foldem;
 
+import java.util.Arrays;
+import java.util.Collection;
+
 /**
  * Represents a single card in a standard 52-card deck.
  */
@@ -70,11 +73,38 @@ public class Card {
 	/** A king card type. **/
 	public static final int KING = 12;
 
+	/* Suits ordered by their ordinal, for mapping card indices to suits. */
+	private static final Suit[] SUITS = Suit.values();
+	
+	/* Contains the shared instance of each card, indexed by card index. */
+	private static final Card[] CARDS = new Card[Constants.DECK_SIZE];
+	
+	/* Maps value and suit shorthand characters to card values and suit ordinals, -1 if invalid. */
+	static final byte[] VALUE_CHARS = new byte[128];
+	static final byte[] SUIT_CHARS = new byte[128];
+	
+	static {
+		for (int i = 0; i < CARDS.length; i++) {
+			CARDS[i] = new Card(value(i), suit(i));
+		}
+		Arrays.fill(VALUE_CHARS, (byte) -1);
+		Arrays.fill(SUIT_CHARS, (byte) -1);
+		for (int i = 0; i < LABEL.length; i++) {
+			VALUE_CHARS[LABEL[i]] = (byte) i;
+		}
+		for (Suit suit : SUITS) {
+			SUIT_CHARS[suit.getShorthand()] = (byte) suit.ordinal();
+		}
+	}
+
 	/* The card value. */
 	private final int value;
 	
 	/* The suit of the card. */
 	private final Suit suit;
+	
+	/* The index of the card. */
+	private final int index;
 
 	/**
 	 * Constructs a new {@link Card} using the given card value and suit.
@@ -83,16 +113,92 @@ public class Card {
 	 *            The card value.
 	 * @param suit
 	 *            The card suit.
+	 * @deprecated Use {@link Card#of(int, Suit)}, which does not create a new
+	 *             instance.
 	 */
+	@Deprecated
 	public Card(int value, Suit suit) {
+		if (value < ACE || value > KING) {
+			throw new IllegalArgumentException("Invalid card value " + value);
+		}
 		this.value = value;
 		this.suit = suit;
+		this.index = index(value, suit);
 	}
 	
 	/**
 	 * Constructs a new Card using the given string based shorthand
 	 * representation.
 	 * 
+	 * @param text
+	 *            A string shorthand for the card (eg. Ah would be the ace of
+	 *            hearts, 7c the seven of clubs).
+	 * @deprecated Use {@link Card#of(String)}, which does not create a new
+	 *             instance.
+	 */
+	@Deprecated
+	public Card(String text) {
+		this(of(text));
+	}
+	
+	/**
+	 * Constructs a new {@link Card} with the same value and suit as the
+	 * specified card.
+	 * 
+	 * @param card
+	 *            The card to copy.
+	 */
+	private Card(Card card) {
+		this.value = card.value;
+		this.suit = card.suit;
+		this.index = card.index;
+	}
+	
+	/**
+	 * Obtains the {@link Card} with the specified index, see
+	 * {@link Card#index()} for information on card indices.
+	 * 
+	 * <p>
+	 * There is a single shared instance of each card, so this never creates
+	 * a new {@link Card}.
+	 * </p>
+	 * 
+	 * @param index
+	 *            The card index.
+	 * @return The card with the specified index.
+	 */
+	public static Card of(int index) {
+		if (index < 0 || index >= CARDS.length) {
+			throw new IllegalArgumentException("Invalid card index " + index);
+		}
+		return CARDS[index];
+	}
+	
+	/**
+	 * Obtains the {@link Card} with the specified value and suit.
+	 * 
+	 * <p>
+	 * There is a single shared instance of each card, so this never creates
+	 * a new {@link Card}.
+	 * </p>
+	 * 
+	 * @param value
+	 *            The card value.
+	 * @param suit
+	 *            The card suit.
+	 * @return The card with the specified value and suit.
+	 */
+	public static Card of(int value, Suit suit) {
+		if (value < ACE || value > KING) {
+			throw new IllegalArgumentException("Invalid card value " + value);
+		}
+		return CARDS[index(value, suit)];
+	}
+	
+	/**
+	 * Obtains the {@link Card} described by the given string based shorthand
+	 * representation.
+	 * 
 	 * <p>
 	 * The shorthand format is based on the loose standard used by poker players
 	 * for conveniently describing cards.
@@ -108,42 +214,27 @@ public class Card {
 	 * @param text
 	 *            A string shorthand for the card (eg. Ah would be the ace of
 	 *            hearts, 7c the seven of clubs).
+	 * @return The card described by the shorthand.
 	 */
-	public Card(String text) {
-		char[] values = text.toCharArray();
-		if (values.length != 2) {
-			throw new IllegalArgumentException("Invalid hand length '" + text + "'");
-		}
-		
-		/*
-		 * Parse the card value.
-		 */
-		int value = -1;
-		for (int i = 0; i < LABEL.length; i++) {
-			if (LABEL[i] == values[0]) {
-				value = i;
-				break;
-			}
-		}
-		if (value == -1) {
-			throw new IllegalArgumentException("Invalid card shorthand '" + values[0] + "'");
-		}
-		this.value = value;
-		
-		/*
-		 * Parse the card suit.
-		 */
-		Suit suit = null;
-		for (Suit s : Suit.values()) {
-			if (s.getShorthand() == values[1]) {
-				suit = s;
-				break;
-			}
+	public static Card of(String text) {
+		if (text.length() != 2) {
+			throw new IllegalArgumentException("Invalid card length '" + text + "'");
 		}
-		if (suit == null) {
-			throw new IllegalArgumentException("Invalid suit shorthand '" + values[1] + "'");
-		}
-		this.suit = suit;
+		return CARDS[CardParser.card(text, 0)];
+	}
+	
+	/**
+	 * Obtains the index of the card with the specified value and suit
+	 * shorthand characters.
+	 * 
+	 * @param value
+	 *            The value shorthand character, in "A23456789TJQK".
+	 * @param suit
+	 *            The suit shorthand character, in "hsdc".
+	 * @return The index of the card.
+	 */
+	public static int index(char value, char suit) {
+		return CardParser.index(value, suit, 0);
 	}
 	
 	/**
@@ -163,30 +254,95 @@ public class Card {
 	public Suit getSuit() {
 		return suit;
 	}
+
+	/**
+	 * Obtains the index of this card, a number between 0 and 51 that is unique
+	 * to each card. Cards are indexed in the order they are placed in a new
+	 * {@link Deck}, so the index is equivalent to
+	 * <code>getSuit().ordinal() * 13 + getValue()</code>.
+	 * 
+	 * @return The index of this card.
+	 */
+	public int index() {
+		return index;
+	}
+
+	/**
+	 * Obtains a bitmask with the bit at this card's index set, for use with
+	 * the card mask based methods of {@link codes.derive.foldem.eval.Evaluator}.
+	 * 
+	 * @return A bitmask containing only this card.
+	 */
+	public long mask() {
+		return 1L << index;
+	}
+
+	/**
+	 * Obtains the index of the card with the specified value and suit.
+	 * 
+	 * @param value
+	 *            The card value.
+	 * @param suit
+	 *            The card suit.
+	 * @return The index of the card.
+	 * @see Card#index()
+	 */
+	public static int index(int value, Suit suit) {
+		return suit.ordinal() * LABEL.length + value;
+	}
+
+	/**
+	 * Obtains the card value of the card with the specified index.
+	 * 
+	 * @param index
+	 *            The card index.
+	 * @return The card value.
+	 * @see Card#index()
+	 */
+	public static int value(int index) {
+		return index % LABEL.length;
+	}
+
+	/**
+	 * Obtains the suit of the card with the specified index.
+	 * 
+	 * @param index
+	 *            The card index.
+	 * @return The card suit.
+	 * @see Card#index()
+	 */
+	public static Suit suit(int index) {
+		return SUITS[index / LABEL.length];
+	}
+
+	/**
+	 * Obtains a bitmask with the bit at the index of each of the specified
+	 * cards set.
+	 * 
+	 * @param cards
+	 *            The cards.
+	 * @return A bitmask containing the specified cards.
+	 */
+	public static long mask(Collection<Card> cards) {
+		long mask = 0L;
+		for (Card card : cards) {
+			mask |= card.mask();
+		}
+		return mask;
+	}
 	
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj)
 			return true;
-		if (obj == null)
-			return false;
-		if (getClass() != obj.getClass())
-			return false;
-		Card other = (Card) obj;
-		if (suit != other.suit)
-			return false;
-		if (value != other.value)
+		if (!(obj instanceof Card))
 			return false;
-		return true;
+		return index == ((Card) obj).index;
 	}
 	
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + ((suit == null) ? 0 : suit.hashCode());
-		result = prime * result + value;
-		return result;
+		return index;
 	}
 	
 	@Override
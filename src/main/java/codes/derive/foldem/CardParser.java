@@ -0,0 +1,245 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Helper class for parsing card, hand and board shorthand into card indices,
+ * hand indices and card masks, see {@link Card#index()}, {@link Hand#index()}
+ * and {@link CardSet}.
+ * 
+ * <p>
+ * Input is read in place from a {@link java.lang.CharSequence} or a
+ * {@link java.nio.ByteBuffer} of ASCII text, starting at a given offset, and
+ * nothing is allocated unless the input is invalid. Invalid input is reported
+ * using a {@link ShorthandException} containing the position of the first
+ * character that could not be parsed. For information on the shorthand format
+ * see {@link Card#of(String)}.
+ * </p>
+ */
+public class CardParser {
+
+	/**
+	 * Parses the card at the specified offset.
+	 * 
+	 * @param text
+	 *            The input.
+	 * @param offset
+	 *            The position of the card's value character.
+	 * @return The index of the card.
+	 */
+	public static int card(CharSequence text, int offset) {
+		require(offset, 1, text.length());
+		return index(text.charAt(offset), text.charAt(offset + 1), offset);
+	}
+
+	/**
+	 * Parses the card at the specified absolute offset, without changing the
+	 * buffer's position.
+	 * 
+	 * @param buffer
+	 *            The input.
+	 * @param offset
+	 *            The position of the card's value byte.
+	 * @return The index of the card.
+	 */
+	public static int card(ByteBuffer buffer, int offset) {
+		require(offset, 1, buffer.limit());
+		return index((char) (buffer.get(offset) & 0xFF), (char) (buffer.get(offset + 1) & 0xFF), offset);
+	}
+
+	/**
+	 * Parses the card value at the specified offset, such as the 'A' in
+	 * "AKs".
+	 * 
+	 * @param text
+	 *            The input.
+	 * @param offset
+	 *            The position of the value character.
+	 * @return The card value.
+	 */
+	public static int value(CharSequence text, int offset) {
+		if (offset < 0 || offset >= text.length()) {
+			throw new ShorthandException("Missing card value", Math.max(offset, text.length()));
+		}
+		char value = text.charAt(offset);
+		int v = value < Card.VALUE_CHARS.length ? Card.VALUE_CHARS[value] : -1;
+		if (v < 0) {
+			throw new ShorthandException("Invalid card shorthand '" + value + "'", offset);
+		}
+		return v;
+	}
+
+	/**
+	 * Parses the hand at the specified offset.
+	 * 
+	 * @param text
+	 *            The input.
+	 * @param offset
+	 *            The position of the hand's first character.
+	 * @return The index of the hand.
+	 */
+	public static int hand(CharSequence text, int offset) {
+		int a = card(text, offset);
+		int b = card(text, offset + 2);
+		if (a == b) {
+			throw new ShorthandException("Repeated card", offset + 2);
+		}
+		return Hand.index(a, b);
+	}
+
+	/**
+	 * Parses the hand at the specified absolute offset, without changing the
+	 * buffer's position.
+	 * 
+	 * @param buffer
+	 *            The input.
+	 * @param offset
+	 *            The position of the hand's first byte.
+	 * @return The index of the hand.
+	 */
+	public static int hand(ByteBuffer buffer, int offset) {
+		int a = card(buffer, offset);
+		int b = card(buffer, offset + 2);
+		if (a == b) {
+			throw new ShorthandException("Repeated card", offset + 2);
+		}
+		return Hand.index(a, b);
+	}
+
+	/**
+	 * Parses the specified number of consecutive distinct cards starting at
+	 * the specified offset, such as a board.
+	 * 
+	 * @param text
+	 *            The input.
+	 * @param offset
+	 *            The position of the first card's value character.
+	 * @param count
+	 *            The number of cards to parse.
+	 * @return The mask of cards parsed.
+	 */
+	public static long cards(CharSequence text, int offset, int count) {
+		require(offset, count, text.length());
+		long mask = 0L;
+		for (int i = 0, position = offset; i < count; i++, position += 2) {
+			long card = 1L << index(text.charAt(position), text.charAt(position + 1), position);
+			if ((mask & card) != 0) {
+				throw new ShorthandException("Repeated card", position);
+			}
+			mask |= card;
+		}
+		return mask;
+	}
+
+	/**
+	 * Parses the specified number of consecutive distinct cards starting at
+	 * the specified absolute offset, without changing the buffer's position.
+	 * 
+	 * @param buffer
+	 *            The input.
+	 * @param offset
+	 *            The position of the first card's value byte.
+	 * @param count
+	 *            The number of cards to parse.
+	 * @return The mask of cards parsed.
+	 */
+	public static long cards(ByteBuffer buffer, int offset, int count) {
+		require(offset, count, buffer.limit());
+		long mask = 0L;
+		for (int i = 0, position = offset; i < count; i++, position += 2) {
+			long card = 1L << index((char) (buffer.get(position) & 0xFF),
+					(char) (buffer.get(position + 1) & 0xFF), position);
+			if ((mask & card) != 0) {
+				throw new ShorthandException("Repeated card", position);
+			}
+			mask |= card;
+		}
+		return mask;
+	}
+
+	/**
+	 * Parses input consisting only of distinct cards.
+	 * 
+	 * @param text
+	 *            The input.
+	 * @return The mask of cards parsed.
+	 */
+	public static long cards(CharSequence text) {
+		if (text.length() % 2 != 0) {
+			throw new ShorthandException("Incomplete card", text.length() - 1);
+		}
+		return cards(text, 0, text.length() / 2);
+	}
+
+	/**
+	 * Parses input consisting only of distinct cards into a {@link CardSet}.
+	 * 
+	 * @param text
+	 *            The input.
+	 * @return The cards parsed.
+	 */
+	public static CardSet cardSet(CharSequence text) {
+		return CardSet.of(cards(text));
+	}
+
+	/**
+	 * Obtains the index of the card with the specified value and suit
+	 * shorthand characters.
+	 * 
+	 * @param value
+	 *            The value shorthand character.
+	 * @param suit
+	 *            The suit shorthand character.
+	 * @param position
+	 *            The position of the value character in the input.
+	 * @return The index of the card.
+	 */
+	static int index(char value, char suit, int position) {
+		int v = value < Card.VALUE_CHARS.length ? Card.VALUE_CHARS[value] : -1;
+		if (v < 0) {
+			throw new ShorthandException("Invalid card shorthand '" + value + "'", position);
+		}
+		int s = suit < Card.SUIT_CHARS.length ? Card.SUIT_CHARS[suit] : -1;
+		if (s < 0) {
+			throw new ShorthandException("Invalid suit shorthand '" + suit + "'", position + 1);
+		}
+		return s * Card.LABEL.length + v;
+	}
+
+	/**
+	 * Makes sure the input contains the specified number of cards starting at
+	 * the specified offset.
+	 * 
+	 * @param offset
+	 *            The position of the first card.
+	 * @param count
+	 *            The number of cards.
+	 * @param length
+	 *            The length of the input.
+	 */
+	private static void require(int offset, int count, int length) {
+		if (offset < 0 || count < 0) {
+			throw new ShorthandException("Invalid offset or count", offset);
+		}
+		if (offset + count * 2 > length) {
+			throw new ShorthandException("Incomplete card", Math.max(offset, length));
+		}
+	}
+
+}
@@ -0,0 +1,157 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem;
+
+import java.util.Random;
+
+/**
+ * Helper class for drawing random cards that are not in a set of dead cards,
+ * without building a {@link Deck}.
+ * 
+ * <p>
+ * Each card is drawn using a single random number: the cards that are still
+ * available are kept as a card mask, a random number below the number of
+ * available cards is chosen, and the card at that position among the
+ * available cards is found by counting bits. Every card that is not dead is
+ * equally likely to be drawn, and nothing is ever drawn twice or redrawn.
+ * </p>
+ */
+public class CardSampler {
+
+	/* A mask containing every card in a standard deck. */
+	private static final long ALL = CardSet.ALL.mask();
+
+	/**
+	 * Draws a single random card that is not in the specified card mask.
+	 * 
+	 * @param dead
+	 *            The mask of cards that cannot be drawn.
+	 * @param random
+	 *            The random number generator to use.
+	 * @return The index of the card drawn.
+	 */
+	public static int draw(long dead, Random random) {
+		long available = ALL & ~dead;
+		int count = Long.bitCount(available);
+		if (count == 0) {
+			throw new IllegalArgumentException("No cards available to draw");
+		}
+		return select(available, random.nextInt(count));
+	}
+
+	/**
+	 * Draws the specified number of distinct random cards that are not in the
+	 * specified card mask.
+	 * 
+	 * @param dead
+	 *            The mask of cards that cannot be drawn.
+	 * @param count
+	 *            The number of cards to draw.
+	 * @param random
+	 *            The random number generator to use.
+	 * @return The mask of cards drawn.
+	 */
+	public static long draw(long dead, int count, Random random) {
+		long available = ALL & ~dead;
+		int remaining = Long.bitCount(available);
+		if (count < 0 || count > remaining) {
+			throw new IllegalArgumentException("Cannot draw " + count + " cards from " + remaining);
+		}
+		long drawn = 0L;
+		for (int i = 0; i < count; i++, remaining--) {
+			long card = 1L << select(available, random.nextInt(remaining));
+			available &= ~card;
+			drawn |= card;
+		}
+		return drawn;
+	}
+
+	/**
+	 * Draws the specified number of distinct random cards that are not in the
+	 * specified set.
+	 * 
+	 * @param dead
+	 *            The cards that cannot be drawn.
+	 * @param count
+	 *            The number of cards to draw.
+	 * @param random
+	 *            The random number generator to use.
+	 * @return The cards drawn.
+	 */
+	public static CardSet draw(CardSet dead, int count, Random random) {
+		return CardSet.of(draw(dead.mask(), count, random));
+	}
+
+	/**
+	 * Draws the specified number of distinct random cards that are not in the
+	 * specified card mask into the specified array, in the order they were
+	 * drawn.
+	 * 
+	 * @param dead
+	 *            The mask of cards that cannot be drawn.
+	 * @param cards
+	 *            The array to fill with the cards drawn.
+	 * @param random
+	 *            The random number generator to use.
+	 * @return The mask of cards drawn.
+	 */
+	public static long draw(long dead, Card[] cards, Random random) {
+		long available = ALL & ~dead;
+		int remaining = Long.bitCount(available);
+		if (cards.length > remaining) {
+			throw new IllegalArgumentException("Cannot draw " + cards.length + " cards from " + remaining);
+		}
+		long drawn = 0L;
+		for (int i = 0; i < cards.length; i++, remaining--) {
+			int index = select(available, random.nextInt(remaining));
+			available &= ~(1L << index);
+			drawn |= 1L << index;
+			cards[i] = Card.of(index);
+		}
+		return drawn;
+	}
+
+	/**
+	 * Finds the position of the specified set bit in a mask, counting from
+	 * the lowest set bit.
+	 * 
+	 * @param mask
+	 *            The mask.
+	 * @param n
+	 *            The number of set bits below the one to find, less than the
+	 *            number of bits set in the mask.
+	 * @return The position of the bit.
+	 */
+	static int select(long mask, int n) {
+		int position = 0;
+
+		/*
+		 * Halve the window we're looking in each time, moving up past the
+		 * lower half if it doesn't contain enough set bits.
+		 */
+		for (int width = Long.SIZE / 2; width > 0; width >>= 1) {
+			int low = Long.bitCount(mask & ((1L << width) - 1));
+			if (n >= low) {
+				n -= low;
+				mask >>>= width;
+				position += width;
+			}
+		}
+		return position;
+	}
+
+}
@@ -0,0 +1,284 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Represents an immutable set of cards.
+ *
+ * <p>
+ * Each card is stored as the bit at its index in a single <code>long</code>,
+ * as described by {@link Card#index()}, so combining and comparing sets of
+ * cards never allocates or iterates. For example, checking whether a
+ * {@link Hand} uses any dead card or a card on the board is
+ * <code>hand.cardSet().intersects(dead.union(board.cardSet()))</code>.
+ * </p>
+ */
+public final class CardSet implements Iterable<Card> {
+
+	/** A set containing no cards. **/
+	public static final CardSet EMPTY = new CardSet(0L);
+
+	/** A set containing every card in a standard deck. **/
+	public static final CardSet ALL = new CardSet((1L << Constants.DECK_SIZE) - 1);
+
+	/* The mask of cards within this set. */
+	private final long mask;
+
+	/**
+	 * Constructs a new {@link CardSet} containing the cards in the specified
+	 * mask.
+	 *
+	 * @param mask
+	 *            The card mask.
+	 */
+	private CardSet(long mask) {
+		this.mask = mask;
+	}
+
+	/**
+	 * Obtains a set containing the cards in the specified mask, with the bit
+	 * at each card's index set.
+	 *
+	 * @param mask
+	 *            The card mask.
+	 * @return A set containing the cards in the mask.
+	 */
+	public static CardSet of(long mask) {
+		if ((mask & ~ALL.mask) != 0) {
+			throw new IllegalArgumentException("Invalid card mask 0x" + Long.toHexString(mask));
+		}
+		return mask == 0 ? EMPTY : new CardSet(mask);
+	}
+
+	/**
+	 * Obtains a set containing the specified cards.
+	 *
+	 * @param cards
+	 *            The cards.
+	 * @return A set containing the cards.
+	 */
+	public static CardSet of(Card... cards) {
+		long mask = 0L;
+		for (Card card : cards) {
+			mask |= card.mask();
+		}
+		return of(mask);
+	}
+
+	/**
+	 * Obtains a set containing the specified cards.
+	 *
+	 * @param cards
+	 *            The cards.
+	 * @return A set containing the cards.
+	 */
+	public static CardSet of(Collection<Card> cards) {
+		return of(Card.mask(cards));
+	}
+
+	/**
+	 * Obtains the mask of cards within this set, with the bit at each card's
+	 * index set.
+	 *
+	 * @return The mask of cards within this set.
+	 */
+	public long mask() {
+		return mask;
+	}
+
+	/**
+	 * Obtains the number of cards within this set.
+	 *
+	 * @return The number of cards within this set.
+	 */
+	public int size() {
+		return Long.bitCount(mask);
+	}
+
+	/**
+	 * Obtains whether or not this set contains no cards.
+	 *
+	 * @return <code>true</code> if this set is empty, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isEmpty() {
+		return mask == 0;
+	}
+
+	/**
+	 * Obtains whether or not this set contains the specified card.
+	 *
+	 * @param card
+	 *            The card.
+	 * @return <code>true</code> if the card is within this set, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean contains(Card card) {
+		return (mask & card.mask()) != 0;
+	}
+
+	/**
+	 * Obtains whether or not this set contains every card in the specified
+	 * set.
+	 *
+	 * @param other
+	 *            The other set.
+	 * @return <code>true</code> if every card in the other set is within this
+	 *         set, otherwise <code>false</code>.
+	 */
+	public boolean containsAll(CardSet other) {
+		return (other.mask & ~mask) == 0;
+	}
+
+	/**
+	 * Obtains whether or not this set has any card in common with the
+	 * specified set.
+	 *
+	 * @param other
+	 *            The other set.
+	 * @return <code>true</code> if the sets share a card, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean intersects(CardSet other) {
+		return (mask & other.mask) != 0;
+	}
+
+	/**
+	 * Obtains a set containing the cards in either this set or the specified
+	 * set.
+	 *
+	 * @param other
+	 *            The other set.
+	 * @return The union of both sets.
+	 */
+	public CardSet union(CardSet other) {
+		return of(mask | other.mask);
+	}
+
+	/**
+	 * Obtains a set containing the cards in both this set and the specified
+	 * set.
+	 *
+	 * @param other
+	 *            The other set.
+	 * @return The intersection of both sets.
+	 */
+	public CardSet intersection(CardSet other) {
+		return of(mask & other.mask);
+	}
+
+	/**
+	 * Obtains a set containing the cards in this set that are not in the
+	 * specified set.
+	 *
+	 * @param other
+	 *            The other set.
+	 * @return This set without the cards in the other set.
+	 */
+	public CardSet minus(CardSet other) {
+		return of(mask & ~other.mask);
+	}
+
+	/**
+	 * Obtains a set containing every card in a standard deck that is not in
+	 * this set.
+	 *
+	 * @return The complement of this set.
+	 */
+	public CardSet complement() {
+		return of(ALL.mask & ~mask);
+	}
+
+	/**
+	 * Obtains a set containing the cards in this set and the specified card.
+	 *
+	 * @param card
+	 *            The card to add.
+	 * @return This set with the card added.
+	 */
+	public CardSet with(Card card) {
+		return of(mask | card.mask());
+	}
+
+	/**
+	 * Obtains a set containing the cards in this set other than the specified
+	 * card.
+	 *
+	 * @param card
+	 *            The card to remove.
+	 * @return This set with the card removed.
+	 */
+	public CardSet without(Card card) {
+		return of(mask & ~card.mask());
+	}
+
+	/**
+	 * Iterates over the cards in this set in order of their indices.
+	 */
+	@Override
+	public Iterator<Card> iterator() {
+		return new Iterator<Card>() {
+
+			/* The cards left to visit. */
+			private long remaining = mask;
+
+			@Override
+			public boolean hasNext() {
+				return remaining != 0;
+			}
+
+			@Override
+			public Card next() {
+				if (remaining == 0) {
+					throw new NoSuchElementException();
+				}
+				int index = Long.numberOfTrailingZeros(remaining);
+				remaining &= remaining - 1;
+				return Card.of(index);
+			}
+
+		};
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder bldr = new StringBuilder();
+		for (Card card : this) {
+			bldr.append(card);
+		}
+		return bldr.toString();
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(mask);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof CardSet))
+			return false;
+		return mask == ((CardSet) obj).mask;
+	}
+
+}
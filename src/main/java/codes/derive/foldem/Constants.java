@@ -30,6 +30,9 @@ public class Constants {
 	/** The number of cards in a standard Hold 'em hand. **/
 	public static final int HAND_SIZE = 2;
 
+	/** The number of distinct Hold 'em hands. **/
+	public static final int HAND_COUNT = 1326;
+
 	/** Contains an enumeration of off-suit {@link Card} combinations. **/
 	public static final Suit[][] OFFSUIT_COMBINATIONS = {
 		{ Suit.SPADES, Suit.CLUBS }, { Suit.SPADES, Suit.HEARTS },
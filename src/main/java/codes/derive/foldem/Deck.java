@@ -16,8 +16,6 @@
  */
 package codes.derive.foldem;
 
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.Random;
 import codes.derive.foldem.util.RandomContext;
 
@@ -28,6 +26,13 @@ import codes.derive.foldem.util.RandomContext;
  * taking a card from the next available position in the deck and moving the
  * cursor to the following card.
  * </p>
+ * 
+ * <p>
+ * A deck can be reused by calling {@link Deck#reset(Random)}, which returns
+ * every card to it without creating any objects. After a reset, the deck is
+ * shuffled lazily: each card is chosen at random from the remaining cards as
+ * it is dealt, so only the cards that are dealt are shuffled.
+ * </p>
  */
 public class Deck {
 
@@ -37,16 +42,26 @@ public class Deck {
 	/* Current cursor offset in the backing array. */
 	private int currentIndex = 0;
 
+	/* The mask of cards that have been dealt from this deck. */
+	private long dealt = 0L;
+
+	/* Maps card indices to their position in the backing array. */
+	private final int[] positions = new int[Constants.DECK_SIZE];
+
+	/* The random number generator used to choose each card as it is dealt, or null. */
+	private Random random;
+
+	/* Whether the card at the cursor has already been chosen by peek(). */
+	private boolean chosen = false;
+
 	/**
 	 * Constructs a new {@link Deck} with the cards placed in a basic uniform
 	 * order.
 	 */
 	public Deck() {
-		int offset = 0;
-		for (Suit suit : Suit.values()) {
-			for (int num = Card.ACE; num <= Card.KING; num++) {
-				cards[offset++] = new Card(num, suit);
-			}
+		for (int i = 0; i < cards.length; i++) {
+			cards[i] = Card.of(i);
+			positions[i] = i;
 		}
 	}
 
@@ -72,7 +87,42 @@ public class Deck {
 		if (currentIndex > 0) {
 			throw new IllegalStateException("Deck cannot be shuffled after pop()");
 		}
-		Collections.shuffle(Arrays.asList(cards), random);
+		for (int i = cards.length; i > 1; i--) {
+			swap(i - 1, random.nextInt(i));
+		}
+		chosen = false;
+		return this;
+	}
+
+	/**
+	 * Returns every card to this deck without changing its order, so that it
+	 * can be dealt again.
+	 * 
+	 * @return The current {@link Deck} context, for chaining.
+	 */
+	public Deck reset() {
+		currentIndex = 0;
+		dealt = 0L;
+		random = null;
+		chosen = false;
+		return this;
+	}
+
+	/**
+	 * Returns every card to this deck, so that it can be dealt again, and
+	 * shuffles it lazily using the provided {@link java.util.Random} context.
+	 * Each card dealt after this is chosen at random from the cards remaining,
+	 * which deals cards with the same probabilities as shuffling the whole
+	 * deck with {@link Deck#shuffle(Random)} but only does as much work as
+	 * the number of cards dealt.
+	 * 
+	 * @param random
+	 *            The random number generator to use to choose cards.
+	 * @return The current {@link Deck} context, for chaining.
+	 */
+	public Deck reset(Random random) {
+		reset();
+		this.random = random;
 		return this;
 	}
 
@@ -88,22 +138,13 @@ public class Deck {
 	 *         specified.
 	 */
 	public Card pop(Card c) {
-		int index = 0;
-		for (int i = 0; i < cards.length; i++) {
-			if (cards[i].equals(c)) {
-				index = i;
-				break;
-			}
-		}
+		int index = positions[c.index()];
 		if (index < currentIndex) {
 			throw new IllegalArgumentException("Card already dealt");
 		}
-		if (index > 0) {
-			Card temp = cards[index];
-			cards[index] = cards[currentIndex];
-			cards[currentIndex] = temp;
-		}
-		return pop();
+		swap(index, currentIndex);
+		chosen = false;
+		return deal();
 	}
 
 	/**
@@ -132,7 +173,8 @@ public class Deck {
 			throw new IllegalStateException(
 					"No cards, you can use remaining() to check");
 		}
-		return cards[currentIndex++];
+		choose();
+		return deal();
 	}
 
 	/**
@@ -141,6 +183,7 @@ public class Deck {
 	 * @return The next available {@link Card} on the deck.
 	 */
 	public Card peek() {
+		choose();
 		return cards[currentIndex];
 	}
 
@@ -163,12 +206,17 @@ public class Deck {
 	 *         <code>false</code> otherwise.
 	 */
 	public boolean dealt(Card c) {
-		for (int i = 0; i < cards.length; i++) {
-			if (cards[i].equals(c)) {
-				return i < currentIndex;
-			}
-		}
-		throw new AssertionError("Card " + c + " was not found in the deck");
+		return (dealt & c.mask()) != 0;
+	}
+
+	/**
+	 * Obtains the cards that have not yet been dealt from this deck as a
+	 * {@link CardSet}.
+	 * 
+	 * @return The cards left in this deck.
+	 */
+	public CardSet cardSet() {
+		return CardSet.of(dealt).complement();
 	}
 
 	/**
@@ -181,6 +229,45 @@ public class Deck {
 		return cards;
 	}
 
+	/**
+	 * If this deck is being shuffled lazily, moves a card chosen at random
+	 * from the remaining cards to the cursor, unless one already has been.
+	 */
+	private void choose() {
+		if (random != null && !chosen && currentIndex < cards.length) {
+			swap(currentIndex, currentIndex + random.nextInt(cards.length - currentIndex));
+			chosen = true;
+		}
+	}
+
+	/**
+	 * Deals the card at the cursor and moves the cursor to the following card.
+	 * 
+	 * @return The card dealt.
+	 */
+	private Card deal() {
+		Card c = cards[currentIndex++];
+		dealt |= c.mask();
+		chosen = false;
+		return c;
+	}
+
+	/**
+	 * Swaps the cards at the specified positions in the backing array.
+	 * 
+	 * @param i
+	 *            The first position.
+	 * @param j
+	 *            The second position.
+	 */
+	private void swap(int i, int j) {
+		Card temp = cards[i];
+		cards[i] = cards[j];
+		cards[j] = temp;
+		positions[cards[i].index()] = i;
+		positions[cards[j].index()] = j;
+	}
+
 	@Override
 	public String toString() {
 		return Deck.class.getName() + " [dealt=" + currentIndex + "]";
@@ -16,7 +16,6 @@
  */
 package codes.derive.foldem;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -24,23 +23,63 @@ import java.util.List;
 
 /**
  * Represents a hand in Texas Hold 'em.
+ * 
+ * <p>
+ * There is a shared instance of each of the {@link Constants#HAND_COUNT}
+ * distinct hands for each order its cards can be given in, obtained using
+ * {@link Hand#of(Card, Card)}. Both orders have the same
+ * {@link Hand#index()} and are equal to each other, the order only affects
+ * how the hand is displayed.
+ * </p>
  */
 public class Hand {
 
+	/* Contains the shared instance of each hand, indexed by hand index. */
+	private static final Hand[] HANDS = new Hand[Constants.HAND_COUNT];
+
+	/* Contains the shared instance of each hand for each order of its cards, indexed by card indices. */
+	private static final Hand[] ORDERED = new Hand[Constants.DECK_SIZE * Constants.DECK_SIZE];
+
+	/* An unmodifiable view of every hand, ordered by hand index. */
+	private static final List<Hand> ALL = Collections.unmodifiableList(Arrays.asList(HANDS));
+
+	static {
+		for (int b = 1; b < Constants.DECK_SIZE; b++) {
+			for (int a = 0; a < b; a++) {
+
+				/*
+				 * The shared instance listed by hand index is the one with its
+				 * highest ranked card first.
+				 */
+				Hand ab = new Hand(Card.of(a), Card.of(b), index(a, b));
+				Hand ba = new Hand(Card.of(b), Card.of(a), index(a, b));
+				ORDERED[a * Constants.DECK_SIZE + b] = ab;
+				ORDERED[b * Constants.DECK_SIZE + a] = ba;
+				HANDS[ab.index] = order(Card.of(a)) > order(Card.of(b)) ? ab : ba;
+			}
+		}
+	}
+
 	/* The cards contained within this hand. */
-	private final List<Card> cards = new ArrayList<>(2);
+	private final List<Card> cards;
+
+	/* The cards contained within this hand as a set. */
+	private final CardSet cardSet;
+
+	/* The index of the hand. */
+	private final int index;
 
 	/**
 	 * Creates a new hand with the specified cards.
 	 * 
 	 * @param cards
 	 *            The cards to use.
+	 * @deprecated Use {@link Hand#of(Card, Card)}, which does not create a new
+	 *             instance.
 	 */
+	@Deprecated
 	public Hand(Card... cards) {
-		if (cards.length != 2) {
-			throw new IllegalArgumentException("Illegal number of cards");
-		}
-		this.cards.addAll(Arrays.asList(cards));
+		this(of(cards));
 	}
 	
 	/**
@@ -50,15 +89,149 @@ public class Hand {
 	 * This uses the same format as single cards. For example, "AsAc" would
 	 * create a hand with the ace of spaces and the ace of clubs. For more
 	 * information on this format please refer to
-	 * {@link codes.derive.foldem.Card#Card(String)}.
+	 * {@link codes.derive.foldem.Card#of(String)}.
 	 * </p>
 	 * 
 	 * @param cards
 	 *            The cards represented as a shorthand string.
-	 * @see codes.derive.foldem.Card#Card(String)
+	 * @see codes.derive.foldem.Card#of(String)
+	 * @deprecated Use {@link Hand#of(String)}, which does not create a new
+	 *             instance.
 	 */
+	@Deprecated
 	public Hand(String cards) {
-		this(new Card(cards.substring(0, 2)), new Card(cards.substring(2, 4)));
+		this(of(cards));
+	}
+
+	/**
+	 * Creates a new hand containing the specified distinct cards.
+	 * 
+	 * @param a
+	 *            The first card.
+	 * @param b
+	 *            The second card.
+	 * @param index
+	 *            The index of the hand.
+	 */
+	private Hand(Card a, Card b, int index) {
+		this.cards = Collections.unmodifiableList(Arrays.asList(a, b));
+		this.cardSet = CardSet.of(a, b);
+		this.index = index;
+	}
+
+	/**
+	 * Creates a new hand with the same cards as the specified hand.
+	 * 
+	 * @param hand
+	 *            The hand to copy.
+	 */
+	private Hand(Hand hand) {
+		this.cards = hand.cards;
+		this.cardSet = hand.cardSet;
+		this.index = hand.index;
+	}
+
+	/**
+	 * Obtains the {@link Hand} with the specified index, see
+	 * {@link Hand#index()} for information on hand indices. The cards of the
+	 * hand obtained are ordered with the highest ranked card first.
+	 * 
+	 * @param index
+	 *            The hand index.
+	 * @return The hand with the specified index.
+	 */
+	public static Hand of(int index) {
+		if (index < 0 || index >= HANDS.length) {
+			throw new IllegalArgumentException("Invalid hand index " + index);
+		}
+		return HANDS[index];
+	}
+
+	/**
+	 * Obtains the {@link Hand} containing the specified cards in the
+	 * specified order.
+	 * 
+	 * <p>
+	 * There is a shared instance of each hand for each order of its cards,
+	 * so this never creates a new {@link Hand}.
+	 * </p>
+	 * 
+	 * @param a
+	 *            The first card.
+	 * @param b
+	 *            The second card.
+	 * @return The hand containing the specified cards.
+	 */
+	public static Hand of(Card a, Card b) {
+		if (a.equals(b)) {
+			throw new IllegalArgumentException("A hand cannot contain the same card twice");
+		}
+		return ORDERED[a.index() * Constants.DECK_SIZE + b.index()];
+	}
+
+	/**
+	 * Obtains the {@link Hand} containing the specified cards.
+	 * 
+	 * @param cards
+	 *            The cards, of which there must be two.
+	 * @return The hand containing the specified cards.
+	 */
+	public static Hand of(Card... cards) {
+		if (cards.length != Constants.HAND_SIZE) {
+			throw new IllegalArgumentException("Illegal number of cards");
+		}
+		return of(cards[0], cards[1]);
+	}
+
+	/**
+	 * Obtains the {@link Hand} described by the specified string shorthand,
+	 * see {@link Hand#Hand(String)} for information on the format.
+	 * 
+	 * @param cards
+	 *            The cards represented as a shorthand string.
+	 * @return The hand described by the shorthand.
+	 */
+	public static Hand of(String cards) {
+		if (cards.length() != Constants.HAND_SIZE * 2) {
+			throw new IllegalArgumentException("Invalid hand length");
+		}
+		return of(Card.of(CardParser.card(cards, 0)), Card.of(CardParser.card(cards, 2)));
+	}
+
+	/**
+	 * Obtains an unmodifiable view of every distinct hand, ordered by hand
+	 * index, with the cards of each hand ordered as in {@link Hand#of(int)}.
+	 * 
+	 * @return An unmodifiable view of every hand.
+	 */
+	public static List<Hand> all() {
+		return ALL;
+	}
+
+	/**
+	 * Obtains the index of the hand containing the cards with the specified
+	 * card indices, in either order.
+	 * 
+	 * @param a
+	 *            The index of the first card.
+	 * @param b
+	 *            The index of the second card.
+	 * @return The index of the hand.
+	 * @see Hand#index()
+	 */
+	public static int index(int a, int b) {
+		if (a == b) {
+			throw new IllegalArgumentException("A hand cannot contain the same card twice");
+		}
+		if (a > b) {
+			int temp = a;
+			a = b;
+			b = temp;
+		}
+		if (a < 0 || b >= Constants.DECK_SIZE) {
+			throw new IllegalArgumentException("Invalid card index " + (a < 0 ? a : b));
+		}
+		return b * (b - 1) / 2 + a;
 	}
 	
 	/**
@@ -67,7 +240,29 @@ public class Hand {
 	 * @return An unmodifiable view of the cards within this hand.
 	 */
 	public Collection<Card> cards() {
-		return Collections.unmodifiableCollection(cards);
+		return cards;
+	}
+
+	/**
+	 * Obtains the cards within this hand as a {@link CardSet}, which is the
+	 * cheapest way to check a hand for collisions with other cards.
+	 * 
+	 * @return The cards within this hand as a {@link CardSet}.
+	 */
+	public CardSet cardSet() {
+		return cardSet;
+	}
+
+	/**
+	 * Obtains the index of this hand, from 0 to
+	 * {@link Constants#HAND_COUNT} exclusive. Hands are ordered by the index
+	 * of their higher indexed card then the index of their lower indexed card,
+	 * so a hand's index can be used to store data about it in a plain array.
+	 * 
+	 * @return The index of this hand.
+	 */
+	public int index() {
+		return index;
 	}
 	
 	/**
@@ -79,6 +274,19 @@ public class Hand {
 	public boolean suited() {
 		return cards.get(0).getSuit().equals(cards.get(1).getSuit());
 	}
+
+	/**
+	 * Obtains the order of the specified card within a hand, with aces high
+	 * and ties broken by suit.
+	 * 
+	 * @param card
+	 *            The card.
+	 * @return The order of the card, higher cards come first.
+	 */
+	private static int order(Card card) {
+		int value = card.getValue() == Card.ACE ? Card.KING + 1 : card.getValue();
+		return value * Suit.values().length - card.getSuit().ordinal();
+	}
 	
 	@Override
 	public String toString() {
@@ -87,27 +295,16 @@ public class Hand {
 	
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + ((cards == null) ? 0 : cards.hashCode());
-		return result;
+		return index;
 	}
 
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj)
 			return true;
-		if (obj == null)
-			return false;
-		if (getClass() != obj.getClass())
-			return false;
-		Hand other = (Hand) obj;
-		if (cards == null) {
-			if (other.cards != null)
-				return false;
-		} else if (!cards.containsAll(other.cards))
+		if (!(obj instanceof Hand))
 			return false;
-		return true;
+		return index == ((Hand) obj).index;
 	}
 	
 }
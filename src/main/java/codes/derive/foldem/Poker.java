@@ -29,6 +29,7 @@ import codes.derive.foldem.board.Street;
 import codes.derive.foldem.eval.DefaultEvaluator;
 import codes.derive.foldem.eval.Evaluator;
 import codes.derive.foldem.eval.HandValue;
+import codes.derive.foldem.hand.HandGroup;
 import codes.derive.foldem.tool.EquityCalculationBuilder;
 import codes.derive.foldem.tool.EquityCalculationBuilder.Equity;
 import codes.derive.foldem.util.PrettyFormat;
@@ -43,31 +44,31 @@ public class Poker {
 	private Poker() { /* No external instantiation */ }
 
 	/**
-	 * Constructs a {@link Card} with the specified card value and suit.
+	 * Obtains the {@link Card} with the specified card value and suit.
 	 * 
 	 * @param value
 	 *            The card value, must be one of the card value constants
 	 *            defined in {@link Card}.
 	 * @param suit
 	 *            The suit.
-	 * @return A new {@link Card} with the specified value and suit.
+	 * @return The {@link Card} with the specified value and suit.
 	 */
 	public static Card card(int value, Suit suit) {
-		return new Card(value, suit);
+		return Card.of(value, suit);
 	}
 
 	/**
-	 * Constructs a new {@link Card} using the specified shorthand string. For
-	 * information on the shorthand format see
-	 * {@link codes.derive.foldem.Card#Card(String)}.
+	 * Obtains the {@link Card} described by the specified shorthand string.
+	 * For information on the shorthand format see
+	 * {@link codes.derive.foldem.Card#of(String)}.
 	 * 
 	 * @param text
 	 *            The shorthand for the card.
-	 * @return A new {@link Card} using the specified shorthand.
-	 * @see codes.derive.foldem.Card#Card(String)
+	 * @return The {@link Card} described by the specified shorthand.
+	 * @see codes.derive.foldem.Card#of(String)
 	 */
 	public static Card card(String text) {
-		return new Card(text);
+		return Card.of(text);
 	}
 
 	/**
@@ -93,11 +94,9 @@ public class Poker {
 	 *         no specific order.
 	 */
 	public static Collection<Card> cards() {
-		List<Card> cards = new ArrayList<>();
-		for (Suit suit : Suit.values()) {
-			for (int value = Card.ACE; value <= Card.KING; value++) {
-				cards.add(new Card(value, suit));
-			}
+		List<Card> cards = new ArrayList<>(Constants.DECK_SIZE);
+		for (int i = 0; i < Constants.DECK_SIZE; i++) {
+			cards.add(Card.of(i));
 		}
 		return cards;
 	}
@@ -114,11 +113,11 @@ public class Poker {
 	 */
 	public static Collection<Card> cards(String shorthand) {
 		if (shorthand.length() % 2 != 0) {
-			throw new IllegalArgumentException("Invalid shorthand");
+			throw new ShorthandException("Incomplete card", shorthand.length() - 1);
 		}
-		List<Card> cards = new ArrayList<>();
+		List<Card> cards = new ArrayList<>(shorthand.length() / 2);
 		for (int i = 0; i < shorthand.length(); i += 2) {
-			cards.add(card(shorthand.substring(i, i + 2)));
+			cards.add(Card.of(CardParser.card(shorthand, i)));
 		}
 		return cards;
 	}
@@ -131,7 +130,7 @@ public class Poker {
 	 * @return A new hand using the specified cards.
 	 */
 	public static Hand hand(Card... cards) {
-		return new Hand(cards);
+		return Hand.of(cards);
 	}
 
 	/**
@@ -156,28 +155,19 @@ public class Poker {
 	 * @return A new hand using the specified shorthand text.
 	 */
 	public static Hand hand(String cards) {
-		return new Hand(cards);
+		return Hand.of(cards);
 	}
 
 	/**
-	 * Constructs a new {@link java.util.Collection} containing an unordered
-	 * enumeration of all hands.
+	 * Obtains an unmodifiable {@link java.util.Collection} containing every
+	 * distinct hand once, ordered by hand index.
 	 * 
 	 * @return A {@link java.util.Collection} containing every possible
-	 *         {@link Hand}, in no specific order.
-	 * 
+	 *         {@link Hand}.
+	 * @see Hand#index()
 	 */
 	public static Collection<Hand> hands() {
-		List<Hand> hands = new ArrayList<>();
-		for (Card a : cards()) {
-			for (Card b : cards()) {
-				if (a.equals(b)) {
-					continue;
-				}
-				hands.add(hand(a, b));
-			}
-		}
-		return hands;
+		return Hand.all();
 	}
 	
 	/**
@@ -200,61 +190,29 @@ public class Poker {
 	 * 
 	 * @param shorthand
 	 *            The shorthand to use to generate the hands.
-	 * @return A new {@link java.util.Collection} containing the hands specified
+	 * @return A {@link java.util.Collection} containing the hands specified
 	 *         in shorthand format.
+	 * @see codes.derive.foldem.hand.HandGroup
 	 */
 	public static Collection<Hand> handGroup(String shorthand) {
-		List<Hand> hands = new ArrayList<>();
+		int a = CardParser.value(shorthand, 0);
+		int b = CardParser.value(shorthand, 1);
 
 		/*
-		 * Find the numeric values of the card labels provided.
+		 * Without any suit information we want both the suited and off-suit
+		 * groups, pairs are allowed the off-suit modifier since all of their
+		 * hands are off-suit.
 		 */
-		int a = -1, b = -1;
-		for (int i = 0; i < Card.LABEL.length; i++) {
-			if (Card.LABEL[i] == shorthand.charAt(0)) {
-				a = i;
-			}
-			if (Card.LABEL[i] == shorthand.charAt(1)) {
-				b = i;
-			}
+		if (a != b && shorthand.length() == 2) {
+			List<Hand> hands = new ArrayList<>();
+			hands.addAll(HandGroup.of(a, b, true).hands());
+			hands.addAll(HandGroup.of(a, b, false).hands());
+			return hands;
 		}
-		int length = shorthand.length();
-
-		/*
-		 * Include suited hands if we have not specified any specific suit
-		 * information or if we have specified to include suited hands.
-		 */
-		if (length == 2 || (length == 3 && shorthand.charAt(2) == 's')) {
-			if (a == b && length == 3) {
-				throw new IllegalArgumentException(
-						"A hand cannot have identical cards of the same suit");
-			}
-			for (Suit suit : Suit.values()) {
-				hands.add(hand(card(a, suit), card(b, suit)));
-			}
+		if (a == b && shorthand.length() == 3 && shorthand.charAt(2) == 'o') {
+			return HandGroup.of(a, b, false).hands();
 		}
-
-		/*
-		 * Included non-suited hands if we have not specified any specific suit
-		 * information or if we have specified to include non-suited hands.
-		 */
-		if (length == 2 || (length == 3 && shorthand.charAt(2) == 'o')) {
-			/*
-			 * Add all off-suit combinations of the provided hand.
-			 */
-			for (Suit[] suits : Constants.OFFSUIT_COMBINATIONS) {
-				hands.add(hand(card(a, suits[0]), card(b, suits[1])));
-
-				/*
-				 * We only need to reverse the suits if A and B aren't
-				 * equivalent.
-				 */
-				if (a != b) {
-					hands.add(hand(card(a, suits[1]), card(b, suits[0])));
-				}
-			}
-		}
-		return hands;
+		return HandGroup.of(shorthand).hands();
 	}
 
 	/**
@@ -278,6 +236,19 @@ public class Poker {
 
 	}
 
+	/**
+	 * Constructs a new {@link Range} from the specified range notation, such
+	 * as "QQ+, AKs, A5s-A2s, 55%KQo, JTs:0.5". For information on the notation
+	 * see {@link RangeParser}.
+	 * 
+	 * @param notation
+	 *            The range notation.
+	 * @return The new {@link Range} containing the hands described.
+	 */
+	public static Range range(String notation) {
+		return RangeParser.compile(notation);
+	}
+
 	/**
 	 * Constructs a new {@link Board} using the specified cards.
 	 * 
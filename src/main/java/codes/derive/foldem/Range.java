@@ -17,28 +17,127 @@
 package codes.derive.foldem;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 
+import codes.derive.foldem.hand.HandGroup;
 import codes.derive.foldem.util.RandomContext;
 
 /**
  * A type representing a range of hands.
+ * 
+ * <p>
+ * The weight of each hand is held in an array indexed by hand index, see
+ * {@link Hand#index()}, so looking up and defining hands takes constant time.
+ * An immutable copy of a range can be taken at any time using
+ * {@link Range#snapshot()}, which shares the array with the range until the
+ * range is next changed. A frozen copy, taken using {@link Range#freeze()},
+ * also holds a hash of its weights so it can be used as a map key cheaply.
+ * </p>
+ * 
+ * <p>
+ * Ranges can also be combined as a whole, such as
+ * <code>open.minus(threeBet).scale(0.6)</code>, with each operation making a
+ * single pass over both arrays and producing a new range.
+ * </p>
  */
 public class Range {
 
-	/*
-	 * A map containing weighted hands in lists mapped to their respective
-	 * weights.
+	/* The number of words needed for a bit per hand. */
+	private static final int WORDS = (Constants.HAND_COUNT + Long.SIZE - 1) / Long.SIZE;
+
+	/* Contains a bit per hand index for each card, set for the hands containing the card. */
+	private static final long[][] HANDS_WITH_CARD = new long[Constants.DECK_SIZE][WORDS];
+
+	static {
+		for (Hand hand : Hand.all()) {
+			for (Card card : hand.cards()) {
+				HANDS_WITH_CARD[card.index()][hand.index() / Long.SIZE] |= 1L << hand.index();
+			}
+		}
+	}
+
+	/* Multipliers used to mix the content hash. */
+	private static final long MIX_A = 0xBF58476D1CE4E5B9L, MIX_B = 0x94D049BB133111EBL;
+
+	/* The amount of weight that can be lost to rounding when taking a fraction of a range. */
+	private static final double ROUNDING = 1e-9;
+
+	/* Contains the weight of each hand indexed by hand index, 0 for hands not in this range. */
+	private double[] weights;
+
+	/* Whether the weights are shared with a snapshot and must be copied before being changed. */
+	private boolean shared;
+
+	/* Whether this range is a snapshot and can't be changed. */
+	private final boolean immutable;
+
+	/* Whether this range is frozen and holds its content hash. */
+	private final boolean frozen;
+
+	/* The content hash of this range's weights if it is frozen, see fingerprint(). */
+	private final long fingerprint;
+
+	/* The number of hands within this range. */
+	private int size;
+
+	/* Contains the hands within this range, or null if it needs to be rebuilt. */
+	private volatile List<Hand> hands;
+
+	/* The table used to sample hands, or null if it needs to be rebuilt. */
+	private volatile AliasTable table;
+
+	/**
+	 * Constructs a new empty {@link Range}.
 	 */
-	private final Map<Double, List<Hand>> weighted = new HashMap<>();
+	public Range() {
+		this.weights = new double[Constants.HAND_COUNT];
+		this.immutable = false;
+		this.frozen = false;
+		this.fingerprint = 0L;
+	}
 
-	/* A list containing hands that always appear within this group. */
-	private final List<Hand> constant = new ArrayList<>();
+	/**
+	 * Constructs a new {@link Range} using the specified weights, which are
+	 * not copied.
+	 * 
+	 * @param weights
+	 *            The weight of each hand indexed by hand index, 0 for hands
+	 *            not in the range.
+	 */
+	Range(double[] weights) {
+		this.weights = weights;
+		this.immutable = false;
+		this.frozen = false;
+		this.fingerprint = 0L;
+		for (double weight : weights) {
+			if (weight > 0.0) {
+				size++;
+			}
+		}
+	}
+
+	/**
+	 * Constructs a new immutable {@link Range} sharing the weights of the
+	 * specified range.
+	 * 
+	 * @param range
+	 *            The range to take a snapshot of.
+	 * @param frozen
+	 *            Whether to compute the content hash of the weights.
+	 */
+	private Range(Range range, boolean frozen) {
+		this.weights = range.weights;
+		this.size = range.size;
+		this.hands = range.hands;
+		this.table = range.table;
+		this.immutable = true;
+		this.frozen = frozen;
+		this.fingerprint = frozen ? fingerprint(weights) : 0L;
+	}
 
 	/**
 	 * Defines a {@link Hand} in this {@link Range}.
@@ -51,7 +150,7 @@ public class Range {
 		if (contains(hand)) {
 			throw new IllegalArgumentException("Hand already exists within range");
 		}
-		constant.add(hand);
+		set(hand.index(), 1.0);
 		return this;
 	}
 
@@ -77,11 +176,15 @@ public class Range {
 	 * @return The {@link Range} context, for chaining.
 	 */
 	public Range define(Collection<Hand> hands) {
-		return define(hands.toArray(new Hand[0]));
+		for (Hand hand : hands) {
+			define(hand);
+		}
+		return this;
 	}
 
 	/**
-	 * Defines a weighted {@link Hand} in this range.
+	 * Defines a weighted {@link Hand} in this range, replacing its weight if
+	 * it is already defined.
 	 * 
 	 * <p>
 	 * The weight of a {@link Hand} defines how often it should be used instead
@@ -100,19 +203,7 @@ public class Range {
 		if (weight <= 0.0 || weight > 1.0) {
 			throw new IllegalArgumentException("Weight out of bounds");
 		}
-		for (List<Hand> hands : weighted.values()) {
-			if (hands.contains(hand)) {
-				hands.remove(hand);
-			}
-		}
-
-		if (!weighted.containsKey(weight)) {
-			weighted.put(weight, new ArrayList<Hand>());
-		}
-		List<Hand> hands = weighted.get(weight);
-		if (!hands.contains(hand)) {
-			hands.add(hand);
-		}
+		set(hand.index(), weight);
 		return this;
 	}
 
@@ -157,7 +248,10 @@ public class Range {
 	 * @return The {@link Range} context, for chaining.
 	 */
 	public Range define(double weight, Collection<Hand> hands) {
-		return define(weight, hands.toArray(new Hand[0]));
+		for (Hand hand : hands) {
+			define(weight, hand);
+		}
+		return this;
 	}
 	
 	/**
@@ -166,15 +260,11 @@ public class Range {
 	 * 
 	 * @param hand
 	 *            The hand.
-	 * @return The {@link Range} context, for chaining.
+	 * @return <code>true</code> if the hand is within this range, otherwise
+	 *         <code>false</code>.
 	 */
 	public boolean contains(Hand hand) {
-		for (List<Hand> hands : weighted.values()) {
-			if (hands.contains(hand)) {
-				return true;
-			}
-		}
-		return constant.contains(hand);
+		return weights[hand.index()] > 0.0;
 	}
 
 	/**
@@ -187,51 +277,119 @@ public class Range {
 	 *         appear within this {@link Range}, as a decimal.
 	 */
 	public double weight(Hand hand) {
-		for (double weight : weighted.keySet()) {
-			if (weighted.get(weight).contains(hand)) {
-				return weight;
-			}
-		}
-		return constant.contains(hand) ? 1.0 : 0;
+		return weights[hand.index()];
+	}
+
+	/**
+	 * Obtains the number of hands within this {@link Range}, regardless of
+	 * their weights.
+	 * 
+	 * @return The number of hands within this {@link Range}.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Obtains the number of combinations of hands within this {@link Range},
+	 * counting each hand by its weight.
+	 * 
+	 * @return The weighted number of hands within this {@link Range}.
+	 */
+	public double combos() {
+		return table().total;
 	}
 	
 	/**
-	 * Obtains a {@link Hand} from this {@link Range}, excluding weighted hands
-	 * at their associated frequencies.
+	 * Obtains a {@link Hand} from this {@link Range}, choosing each hand at a
+	 * frequency proportional to its weight.
+	 * 
+	 * <p>
+	 * This takes constant time using an alias table that is built the first
+	 * time the range is sampled after it changes, and uses no random numbers
+	 * other than those from the specified random context.
+	 * </p>
 	 * 
 	 * @param random
 	 *            The random context to use to generate random numbers for
-	 *            deciding whether or not to include a specific weighted hand.
+	 *            choosing a hand.
 	 * @return The sampled {@link Hand}.
 	 */
 	public Hand sample(Random random) {
-		if (constant.size() == 0) {
-			throw new IllegalStateException(
-					"There needs to be at least one constant hand");
+		if (size == 0) {
+			throw new IllegalStateException("There needs to be at least one hand");
 		}
+		return Hand.of(table().sample(random));
+	}
 
-		/*
-		 * Create a list of candidate hands containing hands with constant even
-		 * weight.
-		 */
-		List<Hand> candidates = constant;
+	/**
+	 * Obtains a {@link Hand} from this {@link Range} that contains none of
+	 * the specified cards, choosing each such hand at a frequency
+	 * proportional to its weight.
+	 * 
+	 * <p>
+	 * When none of the cards are in this range's hands this is the same as
+	 * {@link Range#sample(Random)}. Otherwise the hands that are still
+	 * possible are found using a mask of the hands containing each card, and
+	 * one of them is chosen directly, so this never needs to sample again.
+	 * </p>
+	 * 
+	 * @param random
+	 *            The random context to use to generate random numbers for
+	 *            choosing a hand.
+	 * @param dead
+	 *            The mask of cards that the hand cannot contain, see
+	 *            {@link CardSet#mask()}.
+	 * @return The sampled {@link Hand}.
+	 */
+	public Hand sample(Random random, long dead) {
+		if (size == 0) {
+			throw new IllegalStateException("There needs to be at least one hand");
+		}
+		AliasTable table = table();
+		if ((table.cards & dead) == 0) {
+			return Hand.of(table.sample(random));
+		}
+		double total = combos(table, dead);
+		if (total == 0.0) {
+			throw new IllegalStateException("Every hand contains a dead card");
+		}
 
 		/*
-		 * Determine whether or not to use a weighted subset of hands.
+		 * Walk the possible hands until we pass a random point in their total
+		 * weight, falling back to the last possible hand if rounding means we
+		 * never do.
 		 */
-		double p = Math.random(), c = 0.0;
-		for (double w : weighted.keySet()) {
-			c += w;
-			if (p <= c) {
-				candidates = weighted.get(w);
-				break;
+		double point = random.nextDouble() * total;
+		int last = -1;
+		for (int word = 0; word < WORDS; word++) {
+			for (long bits = possible(table, word, dead); bits != 0; bits &= bits - 1) {
+				last = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+				point -= weights[last];
+				if (point < 0.0) {
+					return Hand.of(last);
+				}
 			}
 		}
+		return Hand.of(last);
+	}
 
-		/*
-		 * Return a random hand from our group of candidates.
-		 */
-		return candidates.get(random.nextInt(candidates.size()));
+	/**
+	 * Obtains the number of combinations of hands within this {@link Range}
+	 * that contain none of the specified cards, counting each hand by its
+	 * weight.
+	 * 
+	 * @param dead
+	 *            The mask of cards that the hands cannot contain, see
+	 *            {@link CardSet#mask()}.
+	 * @return The weighted number of hands containing none of the cards.
+	 */
+	public double combos(long dead) {
+		AliasTable table = table();
+		if ((table.cards & dead) == 0) {
+			return table.total;
+		}
+		return combos(table, dead);
 	}
 
 	/**
@@ -250,30 +408,381 @@ public class Range {
 
 	/**
 	 * Obtains an unmodifiable view containing all hands within this
-	 * {@link Range} including weighted hands.
+	 * {@link Range} including weighted hands, ordered by hand index.
 	 * 
 	 * @return An unmodifiable view containing all hands within this
 	 *         {@link Range}.
 	 */
 	public Collection<Hand> all() {
-		List<Hand> hands = new ArrayList<>();
-		hands.addAll(constant);
-		for (List<Hand> l : weighted.values()) {
-			hands.addAll(l);
+		List<Hand> hands = this.hands;
+		if (hands == null) {
+			List<Hand> all = new ArrayList<>(size);
+			for (int i = 0; i < weights.length; i++) {
+				if (weights[i] > 0.0) {
+					all.add(Hand.of(i));
+				}
+			}
+			this.hands = hands = Collections.unmodifiableList(all);
 		}
-		return Collections.unmodifiableCollection(hands);
+		return hands;
+	}
+
+	/**
+	 * Obtains a new {@link Range} containing the hands within either this
+	 * range or the specified range, each with the greater of its two weights.
+	 * 
+	 * @param other
+	 *            The other range.
+	 * @return The union of both ranges.
+	 */
+	public Range union(Range other) {
+		double[] result = new double[Constants.HAND_COUNT];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = Math.max(weights[i], other.weights[i]);
+		}
+		return new Range(result);
+	}
+
+	/**
+	 * Obtains a new {@link Range} containing the hands within both this range
+	 * and the specified range, each with the lesser of its two weights.
+	 * 
+	 * @param other
+	 *            The other range.
+	 * @return The intersection of both ranges.
+	 */
+	public Range intersection(Range other) {
+		double[] result = new double[Constants.HAND_COUNT];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = Math.min(weights[i], other.weights[i]);
+		}
+		return new Range(result);
+	}
+
+	/**
+	 * Obtains a new {@link Range} containing the hands within this range
+	 * minus those within the specified range. The weight of each hand is
+	 * reduced by its weight within the other range, so a hand with a weight
+	 * of 1.0 here and 0.25 in the other range is left with a weight of 0.75.
+	 * 
+	 * @param other
+	 *            The range to subtract.
+	 * @return This range minus the other range.
+	 */
+	public Range minus(Range other) {
+		double[] result = new double[Constants.HAND_COUNT];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = Math.max(weights[i] - other.weights[i], 0.0);
+		}
+		return new Range(result);
+	}
+
+	/**
+	 * Obtains a new {@link Range} containing the hands within this range with
+	 * their weights multiplied by the specified factor, capped at 1.0.
+	 * 
+	 * @param factor
+	 *            The factor, a factor of 0.0 leaves no hands.
+	 * @return This range scaled by the factor.
+	 */
+	public Range scale(double factor) {
+		if (!(factor >= 0.0)) {
+			throw new IllegalArgumentException("Invalid factor " + factor);
+		}
+		double[] result = new double[Constants.HAND_COUNT];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = Math.min(weights[i] * factor, 1.0);
+		}
+		return new Range(result);
+	}
+
+	/**
+	 * Obtains a new {@link Range} containing the hands within this range with
+	 * their weights limited to the specified bounds.
+	 * 
+	 * @param min
+	 *            The lowest weight a hand can have.
+	 * @param max
+	 *            The highest weight a hand can have.
+	 * @return This range with its weights clamped.
+	 */
+	public Range clamp(double min, double max) {
+		if (!(min > 0.0 && min <= max && max <= 1.0)) {
+			throw new IllegalArgumentException("Weight out of bounds");
+		}
+		double[] result = new double[Constants.HAND_COUNT];
+		for (int i = 0; i < result.length; i++) {
+			if (weights[i] > 0.0) {
+				result[i] = Math.min(Math.max(weights[i], min), max);
+			}
+		}
+		return new Range(result);
+	}
+
+	/**
+	 * Obtains a new {@link Range} containing the hands within this range with
+	 * their weights scaled so that the heaviest hand has a weight of 1.0.
+	 * 
+	 * @return This range normalised.
+	 */
+	public Range normalize() {
+		double max = 0.0;
+		for (double weight : weights) {
+			max = Math.max(max, weight);
+		}
+		return max == 0.0 ? new Range() : scale(1.0 / max);
+	}
+
+	/**
+	 * Obtains a new {@link Range} containing the hands within this range that
+	 * contain none of the specified cards, such as the cards on a board.
+	 * 
+	 * @param cards
+	 *            The cards.
+	 * @return This range without the hands containing the cards.
+	 */
+	public Range without(CardSet cards) {
+		double[] result = weights.clone();
+		for (long mask = cards.mask(); mask != 0; mask &= mask - 1) {
+			long[] hands = HANDS_WITH_CARD[Long.numberOfTrailingZeros(mask)];
+			for (int word = 0; word < WORDS; word++) {
+				for (long bits = hands[word]; bits != 0; bits &= bits - 1) {
+					result[word * Long.SIZE + Long.numberOfTrailingZeros(bits)] = 0.0;
+				}
+			}
+		}
+		return new Range(result);
+	}
+
+	/**
+	 * Obtains a new {@link Range} containing the strongest of the hands
+	 * within this range, making up the specified fraction of its weighted
+	 * combinations. Hands are ranked by their group, see
+	 * {@link HandGroup#ranked()}. The weakest group kept is kept only in
+	 * part by scaling its weights, so the result holds exactly the fraction
+	 * asked for.
+	 * 
+	 * <p>
+	 * For example the top 15% of all hands is
+	 * <code>range().define(Hand.all()).top(0.15)</code>.
+	 * </p>
+	 * 
+	 * @param fraction
+	 *            The fraction of this range's combinations to keep, as a
+	 *            decimal.
+	 * @return The strongest hands within this range.
+	 */
+	public Range top(double fraction) {
+		if (!(fraction >= 0.0 && fraction <= 1.0)) {
+			throw new IllegalArgumentException("Invalid fraction " + fraction);
+		}
+		double remaining = 0.0;
+		for (double weight : weights) {
+			remaining += weight;
+		}
+		remaining *= fraction;
+		double[] result = new double[Constants.HAND_COUNT];
+		for (HandGroup group : HandGroup.ranked()) {
+
+			/*
+			 * Allow for rounding, so we don't keep a sliver of the group after
+			 * the one that filled the fraction.
+			 */
+			if (remaining <= ROUNDING) {
+				break;
+			}
+			double total = 0.0;
+			for (Hand hand : group.hands()) {
+				total += weights[hand.index()];
+			}
+			if (total == 0.0) {
+				continue;
+			}
+
+			/*
+			 * Take the whole group if it fits, otherwise the part of each hand
+			 * that makes up what's left.
+			 */
+			double part = total <= remaining + ROUNDING ? 1.0 : remaining / total;
+			for (Hand hand : group.hands()) {
+				result[hand.index()] = weights[hand.index()] * part;
+			}
+			remaining -= total;
+		}
+		return new Range(result);
+	}
+
+	/**
+	 * Obtains an immutable copy of this {@link Range} as it is now. Taking a
+	 * snapshot does not copy anything, this range's weights are only copied
+	 * the next time it is changed.
+	 * 
+	 * @return An immutable copy of this {@link Range}.
+	 */
+	public Range snapshot() {
+		if (immutable) {
+			return this;
+		}
+		shared = true;
+		return new Range(this, false);
+	}
+
+	/**
+	 * Obtains an immutable copy of this {@link Range} as it is now with its
+	 * content hash computed up front, see {@link Range#fingerprint()}. Like
+	 * {@link Range#snapshot()} this does not copy anything.
+	 * 
+	 * <p>
+	 * Hashing a frozen range takes constant time, and frozen ranges with
+	 * different weights almost always differ in their content hashes so they
+	 * compare unequal in constant time. This makes them suitable as keys in
+	 * maps and caches, such as caches of equity calculations, and they can be
+	 * shared between threads.
+	 * </p>
+	 * 
+	 * @return A frozen copy of this {@link Range}.
+	 */
+	public Range freeze() {
+		if (frozen) {
+			return this;
+		}
+		if (!immutable) {
+			shared = true;
+		}
+		return new Range(this, true);
+	}
+
+	/**
+	 * Obtains a 64 bit hash of the hands within this {@link Range} and their
+	 * weights. Ranges with equal weights have equal content hashes. This is
+	 * computed once for frozen ranges and on every call otherwise.
+	 * 
+	 * @return The content hash of this {@link Range}.
+	 */
+	public long fingerprint() {
+		return frozen ? fingerprint : fingerprint(weights);
+	}
+
+	/**
+	 * Sets the weight of the hand with the specified index, copying the
+	 * weights first if a snapshot is using them.
+	 * 
+	 * @param index
+	 *            The hand index.
+	 * @param weight
+	 *            The weight.
+	 */
+	private void set(int index, double weight) {
+		if (immutable) {
+			throw new IllegalStateException("Range snapshots cannot be changed");
+		}
+		if (shared) {
+			weights = weights.clone();
+			shared = false;
+		}
+		if (weights[index] == 0.0) {
+			size++;
+		}
+		weights[index] = weight;
+		hands = null;
+		table = null;
+	}
+
+	/**
+	 * Sums the weights of the hands within the specified table that contain
+	 * none of the specified cards.
+	 * 
+	 * @param table
+	 *            The table.
+	 * @param dead
+	 *            The mask of cards that the hands cannot contain.
+	 * @return The total weight of the hands.
+	 */
+	private double combos(AliasTable table, long dead) {
+		double total = 0.0;
+		for (int word = 0; word < WORDS; word++) {
+			for (long bits = possible(table, word, dead); bits != 0; bits &= bits - 1) {
+				total += weights[word * Long.SIZE + Long.numberOfTrailingZeros(bits)];
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Obtains a word of the bits marking the hands within the specified table
+	 * that contain none of the specified cards.
+	 * 
+	 * @param table
+	 *            The table.
+	 * @param word
+	 *            The index of the word.
+	 * @param dead
+	 *            The mask of cards that the hands cannot contain.
+	 * @return The word of bits marking the possible hands.
+	 */
+	private static long possible(AliasTable table, int word, long dead) {
+		long bits = table.members[word];
+		for (long cards = dead; cards != 0 && bits != 0; cards &= cards - 1) {
+			bits &= ~HANDS_WITH_CARD[Long.numberOfTrailingZeros(cards)][word];
+		}
+		return bits;
+	}
+
+	/**
+	 * Computes a 64 bit hash of the specified weights, mixing in the index
+	 * and weight of each hand with a weight.
+	 * 
+	 * @param weights
+	 *            The weights indexed by hand index.
+	 * @return The hash of the weights.
+	 */
+	private static long fingerprint(double[] weights) {
+		long hash = 0L;
+		for (int i = 0; i < weights.length; i++) {
+			if (weights[i] > 0.0) {
+				hash = mix((hash + i) ^ Double.doubleToLongBits(weights[i]));
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Mixes the bits of the specified value, so that every bit of the result
+	 * depends on every bit of the value.
+	 * 
+	 * @param z
+	 *            The value.
+	 * @return The mixed value.
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * MIX_A;
+		z = (z ^ (z >>> 27)) * MIX_B;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Obtains the table used to sample hands, building it if it has been
+	 * invalidated.
+	 * 
+	 * @return The table used to sample hands.
+	 */
+	private AliasTable table() {
+		AliasTable table = this.table;
+		if (table == null) {
+			this.table = table = new AliasTable(weights, size);
+		}
+		return table;
 	}
 
 	@Override
 	public String toString() {
 		StringBuilder bldr = new StringBuilder().append(Range.class.getName());
 		bldr.append("[ ");
-		for (Hand hand : constant) {
+		for (Hand hand : all()) {
 			bldr.append(hand);
-			bldr.append(",");
-		}
-		for (double weight : weighted.keySet()) {
-			bldr.append(weighted.get(weight)).append(" ").append(weight);
+			if (weights[hand.index()] != 1.0) {
+				bldr.append(" ").append(weights[hand.index()]);
+			}
 			bldr.append(",");
 		}
 		bldr.deleteCharAt(bldr.length() - 1);
@@ -282,13 +791,7 @@ public class Range {
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result
-				+ ((constant == null) ? 0 : constant.hashCode());
-		result = prime * result
-				+ ((weighted == null) ? 0 : weighted.hashCode());
-		return result;
+		return Long.hashCode(fingerprint());
 	}
 
 	@Override
@@ -300,17 +803,127 @@ public class Range {
 		if (getClass() != obj.getClass())
 			return false;
 		Range other = (Range) obj;
-		if (constant == null) {
-			if (other.constant != null)
-				return false;
-		} else if (!constant.containsAll(other.constant))
-			return false;
-		if (weighted == null) {
-			if (other.weighted != null)
-				return false;
-		} else if (!weighted.equals(other.weighted))
+		if (weights == other.weights) {
+			return true;
+		}
+		if (size != other.size || frozen && other.frozen && fingerprint != other.fingerprint) {
 			return false;
-		return true;
+		}
+		return Arrays.equals(weights, other.weights);
+	}
+
+	/**
+	 * A table for sampling hand indices in proportion to their weights in
+	 * constant time, built using Vose's alias method.
+	 * 
+	 * <p>
+	 * Each hand within the range gets a column holding the probability of
+	 * choosing the column's own hand, with the rest of the column given to an
+	 * alias hand. Sampling picks a column uniformly and then either its hand
+	 * or its alias.
+	 * </p>
+	 */
+	private static final class AliasTable {
+
+		/* The index of the hand owning each column. */
+		private final int[] hands;
+
+		/* The probability of choosing each column's own hand. */
+		private final double[] probabilities;
+
+		/* The index of the alias hand of each column. */
+		private final int[] aliases;
+
+		/* The total weight of the hands in the table. */
+		private final double total;
+
+		/* Contains a bit per hand index, set for the hands in the table. */
+		private final long[] members = new long[WORDS];
+
+		/* The mask of cards used by the hands in the table. */
+		private final long cards;
+
+		/**
+		 * Builds a table for the specified weights.
+		 * 
+		 * @param weights
+		 *            The weight of each hand indexed by hand index.
+		 * @param size
+		 *            The number of hands with a weight.
+		 */
+		private AliasTable(double[] weights, int size) {
+			this.hands = new int[size];
+			this.probabilities = new double[size];
+			this.aliases = new int[size];
+			double total = 0.0;
+			long cards = 0L;
+			for (int i = 0, n = 0; i < weights.length; i++) {
+				if (weights[i] > 0.0) {
+					hands[n++] = i;
+					total += weights[i];
+					members[i / Long.SIZE] |= 1L << i;
+					cards |= Hand.of(i).cardSet().mask();
+				}
+			}
+			this.total = total;
+			this.cards = cards;
+
+			/*
+			 * Scale the weights so the average column is exactly full, and
+			 * split the columns into those that are under and over full.
+			 */
+			double[] scaled = new double[size];
+			int[] small = new int[size], large = new int[size];
+			int smalls = 0, larges = 0;
+			for (int i = 0; i < size; i++) {
+				scaled[i] = weights[hands[i]] * size / total;
+				if (scaled[i] < 1.0) {
+					small[smalls++] = i;
+				} else {
+					large[larges++] = i;
+				}
+			}
+
+			/*
+			 * Fill each under full column using an over full one, which then
+			 * becomes its alias.
+			 */
+			while (smalls > 0 && larges > 0) {
+				int less = small[--smalls], more = large[--larges];
+				probabilities[less] = scaled[less];
+				aliases[less] = hands[more];
+				scaled[more] = scaled[more] + scaled[less] - 1.0;
+				if (scaled[more] < 1.0) {
+					small[smalls++] = more;
+				} else {
+					large[larges++] = more;
+				}
+			}
+
+			/*
+			 * Anything left is full, give or take rounding.
+			 */
+			while (larges > 0) {
+				probabilities[large[--larges]] = 1.0;
+			}
+			while (smalls > 0) {
+				probabilities[small[--smalls]] = 1.0;
+			}
+		}
+
+		/**
+		 * Samples a hand index.
+		 * 
+		 * @param random
+		 *            The random context to use.
+		 * @return The index of the sampled hand.
+		 */
+		private int sample(Random random) {
+			double point = random.nextDouble() * hands.length;
+			int column = (int) point;
+			return point - column < probabilities[column] ? hands[column] : aliases[column];
+		}
+
 	}
 
-}
\ No newline at end of file
+}
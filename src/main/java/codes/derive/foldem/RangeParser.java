@@ -0,0 +1,581 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import codes.derive.foldem.hand.HandGroup;
+
+/**
+ * Compiles range notation such as <code>"QQ+, AKs, A5s-A2s, 55%KQo, JTs:0.5"</code>
+ * into a {@link Range}, remembering the ranges it has compiled.
+ * 
+ * <p>
+ * Notation is a comma separated list of items, each of which is one of:
+ * </p>
+ * <ul>
+ * <li>A hand, such as "AsKs".</li>
+ * <li>A hand group, such as "QQ", "AKs" or "AKo", or "AK" for both the suited
+ * and off-suit groups, see {@link HandGroup#of(CharSequence)}.</li>
+ * <li>A group followed by "+", such as "QQ+" for every pair from queens up, or
+ * "ATs+" for every suited ace with a ten or better.</li>
+ * <li>A span of groups, such as "99-66" or "A5s-A2s", whose groups must be
+ * pairs or share their higher card and modifier.</li>
+ * </ul>
+ * <p>
+ * An item may be given a weight using either a percentage prefix, such as
+ * "55%KQo", or a decimal suffix, such as "JTs:0.5". Hands without a weight
+ * have a weight of 1.0, and hands given by more than one item take the weight
+ * of the last. Whitespace between items and their parts is ignored, and
+ * invalid notation is reported using a {@link ShorthandException}.
+ * </p>
+ * 
+ * <p>
+ * {@link #parse(CharSequence)} keeps an immutable snapshot of each range it
+ * compiles, keyed by the notation with the whitespace it ignores removed, so
+ * notation that is seen again is not compiled again. The number of ranges kept is
+ * bounded, with ranges that have not been looked up recently being removed
+ * first to make room for others. Instances are safe to share between
+ * threads.
+ * </p>
+ */
+public class RangeParser {
+
+	/** The number of ranges kept by default. **/
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/* The characters that whitespace can be left around, see normalize(). */
+	private static final String SEPARATORS = ",-+%:";
+
+	/* The compiled ranges, keyed by their notation without ignored whitespace. */
+	private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+	/* The number of ranges to keep. */
+	private final int capacity;
+
+	/* The kept ranges in the order the clock hand passes them, guarded by the cache's lock. */
+	private final Entry[] clock;
+
+	/* The position of the clock hand, guarded by the cache's lock. */
+	private int hand = 0;
+
+	/* Counts lookups that found their range, and lookups that didn't. */
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Constructs a new {@link RangeParser} keeping up to
+	 * {@link #DEFAULT_CAPACITY} ranges.
+	 */
+	public RangeParser() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new {@link RangeParser} keeping up to the specified number
+	 * of ranges.
+	 * 
+	 * @param capacity
+	 *            The number of ranges to keep.
+	 */
+	public RangeParser(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Invalid capacity " + capacity);
+		}
+		this.capacity = capacity;
+		this.clock = new Entry[capacity];
+	}
+
+	/**
+	 * Obtains the range described by the specified notation, compiling it if
+	 * it has not been kept from an earlier call.
+	 * 
+	 * @param notation
+	 *            The range notation.
+	 * @return An immutable {@link Range} containing the hands described, see
+	 *         {@link Range#snapshot()}.
+	 */
+	public Range parse(CharSequence notation) {
+		String key = normalize(notation);
+		Entry entry = cache.get(key);
+		if (entry != null) {
+			entry.referenced = true;
+			hits.increment();
+			return entry.range;
+		}
+
+		/*
+		 * Compile the original notation so errors report their position in
+		 * it, then keep the range unless another thread got there first.
+		 */
+		misses.increment();
+		Range range = compile(notation).snapshot();
+		synchronized (cache) {
+			entry = cache.get(key);
+			if (entry != null) {
+				return entry.range;
+			}
+			entry = new Entry(key, range);
+			if (cache.size() < capacity) {
+				clock[cache.size()] = entry;
+			} else {
+				evict(entry);
+			}
+			cache.put(key, entry);
+		}
+		return range;
+	}
+
+	/**
+	 * Compiles the specified range notation into a new {@link Range}, without
+	 * keeping it.
+	 * 
+	 * @param notation
+	 *            The range notation.
+	 * @return A new {@link Range} containing the hands described.
+	 */
+	public static Range compile(CharSequence notation) {
+		double[] weights = new double[Constants.HAND_COUNT];
+		int length = notation.length();
+		if (skip(notation, 0, length) == length) {
+			return new Range(weights);
+		}
+		for (int start = 0; start <= length;) {
+			int end = find(notation, ',', start, length);
+			item(notation, start, end, weights);
+			start = end + 1;
+		}
+		return new Range(weights);
+	}
+
+	/**
+	 * Obtains the number of lookups that found their range already compiled.
+	 * 
+	 * @return The number of cache hits.
+	 */
+	public long hits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Obtains the number of lookups that had to compile their range.
+	 * 
+	 * @return The number of cache misses.
+	 */
+	public long misses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Obtains the number of ranges this parser can keep.
+	 * 
+	 * @return The capacity of this parser.
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Removes a range to make room for the specified one, which takes its
+	 * place on the clock, must be called while synchronized on the cache.
+	 * 
+	 * <p>
+	 * As in the CLOCK algorithm, the hand moves around the kept ranges from
+	 * where it last stopped, giving ranges that have been looked up since
+	 * it last passed them another chance, and removes the first range that
+	 * hasn't been. The new range is placed behind the hand, so it is passed
+	 * over until the hand has gone around once more.
+	 * </p>
+	 * 
+	 * @param entry
+	 *            The entry to make room for.
+	 */
+	private void evict(Entry entry) {
+		while (clock[hand].referenced) {
+			clock[hand].referenced = false;
+			hand = (hand + 1) % capacity;
+		}
+		cache.remove(clock[hand].key);
+		clock[hand] = entry;
+		hand = (hand + 1) % capacity;
+	}
+
+	/**
+	 * Compiles a single item of range notation into the specified weights.
+	 * 
+	 * @param text
+	 *            The notation.
+	 * @param start
+	 *            The position of the item's first character.
+	 * @param end
+	 *            The position after the item's last character.
+	 * @param weights
+	 *            The weights to set, indexed by hand index.
+	 */
+	private static void item(CharSequence text, int start, int end, double[] weights) {
+		start = skip(text, start, end);
+		end = trim(text, start, end);
+		if (start == end) {
+			throw new ShorthandException("Missing hand", start);
+		}
+
+		/*
+		 * Read the weight, if there is one, leaving just the hands.
+		 */
+		double weight = 1.0;
+		int percent = find(text, '%', start, end);
+		int colon = find(text, ':', start, end);
+		int position = start;
+		if (percent < end && colon < end) {
+			throw new ShorthandException("Weight given twice", colon);
+		}
+		if (percent < end) {
+			weight = number(text, start, trim(text, start, percent)) / 100.0;
+			start = skip(text, percent + 1, end);
+		} else if (colon < end) {
+			position = skip(text, colon + 1, end);
+			weight = number(text, position, end);
+			end = trim(text, start, colon);
+		}
+		if (weight <= 0.0 || weight > 1.0) {
+			throw new ShorthandException("Weight out of bounds", position);
+		}
+		if (start == end) {
+			throw new ShorthandException("Missing hand", start);
+		}
+
+		/*
+		 * Single hands are recognised by a suit following their first card
+		 * value, anything shorter is left for spec() to report.
+		 */
+		if (end - start == 4) {
+			char suit = text.charAt(start + 1);
+			if (suit < Card.SUIT_CHARS.length && Card.SUIT_CHARS[suit] >= 0) {
+				weights[CardParser.hand(text, start)] = weight;
+				return;
+			}
+		}
+
+		int dash = find(text, '-', start, end);
+		if (dash < end) {
+			Spec first = spec(text, start, trim(text, start, dash));
+			Spec last = spec(text, skip(text, dash + 1, end), end);
+			if (first.pair() && last.pair()) {
+				for (int i = Math.min(first.high, last.high); i <= Math.max(first.high, last.high); i++) {
+					mark(weights, i, i, first.modifier, weight);
+				}
+			} else if (!first.pair() && !last.pair() && first.high == last.high
+					&& first.modifier == last.modifier) {
+				for (int i = Math.min(first.low, last.low); i <= Math.max(first.low, last.low); i++) {
+					mark(weights, first.high, i, first.modifier, weight);
+				}
+			} else {
+				throw new ShorthandException("Groups must both be pairs or share their higher card and modifier",
+						dash);
+			}
+		} else if (text.charAt(end - 1) == '+') {
+			Spec spec = spec(text, start, trim(text, start, end - 1));
+			if (spec.pair()) {
+				for (int i = spec.high; i >= 0; i--) {
+					mark(weights, i, i, spec.modifier, weight);
+				}
+			} else {
+				for (int i = spec.low; i > spec.high; i--) {
+					mark(weights, spec.high, i, spec.modifier, weight);
+				}
+			}
+		} else {
+			Spec spec = spec(text, start, end);
+			mark(weights, spec.high, spec.low, spec.modifier, weight);
+		}
+	}
+
+	/**
+	 * Parses hand group shorthand, allowing the modifier to be left out.
+	 * 
+	 * @param text
+	 *            The notation.
+	 * @param start
+	 *            The position of the first card value.
+	 * @param end
+	 *            The position after the shorthand.
+	 * @return The parsed shorthand.
+	 */
+	private static Spec spec(CharSequence text, int start, int end) {
+		if (end - start < 2 || end - start > 3) {
+			throw new ShorthandException("Invalid hand group shorthand", start);
+		}
+		int a = CardParser.value(text, start);
+		int b = CardParser.value(text, start + 1);
+		char modifier = end - start == 3 ? text.charAt(start + 2) : 0;
+		if (modifier != 0 && modifier != 's' && modifier != 'o') {
+			throw new ShorthandException("Expected 's' or 'o'", start + 2);
+		}
+		if (a == b && modifier == 's') {
+			throw new ShorthandException("Pairs cannot be suited", start + 2);
+		}
+
+		/*
+		 * Suited groups are above the diagonal, so their row is the position
+		 * of the higher card and their column the position of the lower.
+		 */
+		int index = HandGroup.of(a, b, true).index();
+		return new Spec(index / HandGroup.SIZE, index % HandGroup.SIZE, modifier);
+	}
+
+	/**
+	 * Sets the weight of the hands in the groups with the specified card
+	 * positions.
+	 * 
+	 * @param weights
+	 *            The weights to set, indexed by hand index.
+	 * @param high
+	 *            The matrix position of the higher card value.
+	 * @param low
+	 *            The matrix position of the lower card value.
+	 * @param modifier
+	 *            's' for the suited group, 'o' for the off-suit group or 0
+	 *            for both.
+	 * @param weight
+	 *            The weight.
+	 */
+	private static void mark(double[] weights, int high, int low, char modifier, double weight) {
+		if (high == low || modifier != 'o') {
+			mark(weights, HandGroup.of(high * HandGroup.SIZE + low), weight);
+		}
+		if (high != low && modifier != 's') {
+			mark(weights, HandGroup.of(low * HandGroup.SIZE + high), weight);
+		}
+	}
+
+	/**
+	 * Sets the weight of the hands in the specified group.
+	 * 
+	 * @param weights
+	 *            The weights to set, indexed by hand index.
+	 * @param group
+	 *            The group.
+	 * @param weight
+	 *            The weight.
+	 */
+	private static void mark(double[] weights, HandGroup group, double weight) {
+		for (Hand hand : group.hands()) {
+			weights[hand.index()] = weight;
+		}
+	}
+
+	/**
+	 * Parses a decimal number.
+	 * 
+	 * @param text
+	 *            The notation.
+	 * @param start
+	 *            The position of the number's first character.
+	 * @param end
+	 *            The position after the number.
+	 * @return The number.
+	 */
+	private static double number(CharSequence text, int start, int end) {
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if ((c < '0' || c > '9') && c != '.') {
+				throw new ShorthandException("Invalid weight", i);
+			}
+		}
+		try {
+			return Double.parseDouble(text.subSequence(start, end).toString());
+		} catch (NumberFormatException e) {
+			throw new ShorthandException("Invalid weight", start);
+		}
+	}
+
+	/**
+	 * Finds the first occurrence of a character.
+	 * 
+	 * @param text
+	 *            The notation.
+	 * @param c
+	 *            The character.
+	 * @param start
+	 *            The position to start looking at.
+	 * @param end
+	 *            The position to stop looking at.
+	 * @return The position of the character, or <code>end</code> if it wasn't
+	 *         found.
+	 */
+	private static int find(CharSequence text, char c, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (text.charAt(i) == c) {
+				return i;
+			}
+		}
+		return end;
+	}
+
+	/**
+	 * Skips whitespace forwards.
+	 * 
+	 * @param text
+	 *            The notation.
+	 * @param start
+	 *            The position to start at.
+	 * @param end
+	 *            The position to stop at.
+	 * @return The position of the first character that isn't whitespace, or
+	 *         <code>end</code>.
+	 */
+	private static int skip(CharSequence text, int start, int end) {
+		while (start < end && Character.isWhitespace(text.charAt(start))) {
+			start++;
+		}
+		return start;
+	}
+
+	/**
+	 * Skips whitespace backwards.
+	 * 
+	 * @param text
+	 *            The notation.
+	 * @param start
+	 *            The position to stop at.
+	 * @param end
+	 *            The position after the last character to consider.
+	 * @return The position after the last character that isn't whitespace, or
+	 *         <code>start</code>.
+	 */
+	private static int trim(CharSequence text, int start, int end) {
+		while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+			end--;
+		}
+		return end;
+	}
+
+	/**
+	 * Obtains the specified notation with the whitespace that is ignored when
+	 * compiling it removed, that being whitespace at either end or next to a
+	 * separator. Whitespace anywhere else is kept, so that notation which
+	 * does not compile never shares its key with notation which does.
+	 * 
+	 * @param notation
+	 *            The notation.
+	 * @return The notation without ignored whitespace.
+	 */
+	private static String normalize(CharSequence notation) {
+		int length = notation.length();
+		StringBuilder bldr = null;
+		for (int i = 0; i < length; i++) {
+			if (!Character.isWhitespace(notation.charAt(i))) {
+				if (bldr != null) {
+					bldr.append(notation.charAt(i));
+				}
+				continue;
+			}
+
+			/*
+			 * Find the end of this run of whitespace and keep it only if it
+			 * sits between two characters that aren't separators.
+			 */
+			int j = i;
+			while (j < length && Character.isWhitespace(notation.charAt(j))) {
+				j++;
+			}
+			boolean kept = i > 0 && j < length && SEPARATORS.indexOf(notation.charAt(i - 1)) < 0
+					&& SEPARATORS.indexOf(notation.charAt(j)) < 0;
+			if (bldr == null) {
+				bldr = new StringBuilder(length).append(notation, 0, i);
+			}
+			if (kept) {
+				bldr.append(notation, i, j);
+			}
+			i = j - 1;
+		}
+		return bldr == null ? notation.toString() : bldr.toString();
+	}
+
+	/**
+	 * Hand group shorthand with its card values given as positions in the
+	 * matrix of groups, see {@link HandGroup}.
+	 */
+	private static final class Spec {
+
+		/* The positions of the higher and lower card values. */
+		private final int high, low;
+
+		/* 's' for suited, 'o' for off-suit or 0 if neither was given. */
+		private final char modifier;
+
+		/**
+		 * Constructs a new {@link Spec}.
+		 * 
+		 * @param high
+		 *            The position of the higher card value.
+		 * @param low
+		 *            The position of the lower card value.
+		 * @param modifier
+		 *            The modifier.
+		 */
+		private Spec(int high, int low, char modifier) {
+			this.high = high;
+			this.low = low;
+			this.modifier = modifier;
+		}
+
+		/**
+		 * Obtains whether or not this shorthand describes a pair.
+		 * 
+		 * @return <code>true</code> if this is a pair, otherwise
+		 *         <code>false</code>.
+		 */
+		private boolean pair() {
+			return high == low;
+		}
+
+	}
+
+	/**
+	 * A compiled range and whether it has been looked up since the last
+	 * eviction passed it.
+	 */
+	private static final class Entry {
+
+		/* The notation the range is kept under. */
+		private final String key;
+
+		/* The compiled range. */
+		private final Range range;
+
+		/* Whether the range has been looked up since the last eviction passed it. */
+		private volatile boolean referenced;
+
+		/**
+		 * Constructs a new {@link Entry}.
+		 * 
+		 * @param key
+		 *            The notation the range is kept under.
+		 * @param range
+		 *            The compiled range.
+		 */
+		private Entry(String key, Range range) {
+			this.key = key;
+			this.range = range;
+		}
+
+	}
+
+}
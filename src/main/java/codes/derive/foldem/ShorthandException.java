@@ -0,0 +1,54 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem;
+
+/**
+ * Thrown when card, hand or board shorthand cannot be parsed, see
+ * {@link CardParser}.
+ */
+public class ShorthandException extends IllegalArgumentException {
+
+	private static final long serialVersionUID = 1L;
+
+	/* The position in the input of the character that could not be parsed. */
+	private final int position;
+
+	/**
+	 * Constructs a new {@link ShorthandException}.
+	 * 
+	 * @param message
+	 *            The reason the shorthand could not be parsed.
+	 * @param position
+	 *            The position in the input of the character that could not be
+	 *            parsed.
+	 */
+	public ShorthandException(String message, int position) {
+		super(message + " at position " + position);
+		this.position = position;
+	}
+
+	/**
+	 * Obtains the position in the input of the character that could not be
+	 * parsed.
+	 * 
+	 * @return The position of the character that could not be parsed.
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+}
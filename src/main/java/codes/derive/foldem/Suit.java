@@ -41,6 +41,9 @@ public enum Suit {
 	 */
 	DIAMONDS;
 	
+	/* The shorthand character for this suit. */
+	private final char shorthand = name().toLowerCase().charAt(0);
+	
 	/**
 	 * Obtains the shorthand character for this suit. Equivalent to
 	 * <code>name().toLowercase().charAt(0)</code>
@@ -48,7 +51,7 @@ public enum Suit {
 	 * @return The shorthand character for this suit.
 	 */
 	public char getShorthand() {
-		return name().toLowerCase().charAt(0);
+		return shorthand;
 	}
 	
 }
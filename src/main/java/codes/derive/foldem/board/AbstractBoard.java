@@ -24,16 +24,21 @@ import java.util.Collections;
 import java.util.List;
 
 import codes.derive.foldem.Card;
+import codes.derive.foldem.CardSet;
 
 /**
- * An abstract board that provides a basic {@link Board#cards()} implementation,
- * using an {@link java.util.ArrayList } for backing.
+ * An abstract board that provides basic {@link Board#cards()} and
+ * {@link Board#cardSet()} implementations, using an
+ * {@link java.util.ArrayList } for backing.
  */
 public abstract class AbstractBoard implements Board {
 
 	/* A list containing the cards on this board. */
 	private final List<Card> cards = new ArrayList<>();
 
+	/* The cards on this board as a set. */
+	private final CardSet cardSet;
+
 	/**
 	 * Constructs a new board with the specified cards.
 	 * 
@@ -42,6 +47,7 @@ public abstract class AbstractBoard implements Board {
 	 */
 	public AbstractBoard(Card... cards) {
 		this.cards.addAll(Arrays.asList(cards));
+		this.cardSet = CardSet.of(cards);
 	}
 
 	@Override
@@ -49,4 +55,9 @@ public abstract class AbstractBoard implements Board {
 		return Collections.unmodifiableCollection(cards);
 	}
 
+	@Override
+	public CardSet cardSet() {
+		return cardSet;
+	}
+
 }
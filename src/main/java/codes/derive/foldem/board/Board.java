@@ -19,6 +19,7 @@ package codes.derive.foldem.board;
 import java.util.Collection;
 
 import codes.derive.foldem.Card;
+import codes.derive.foldem.CardSet;
 
 /**
  * Represents a board in Texas Hold 'em.
@@ -32,6 +33,19 @@ public interface Board {
 	 */
 	public Collection<Card> cards();
 
+	/**
+	 * Obtains the cards on this {@link Board} as a {@link CardSet}.
+	 * 
+	 * <p>
+	 * By default this builds a new {@link CardSet} from {@link Board#cards()}.
+	 * </p>
+	 * 
+	 * @return The cards on this {@link Board} as a {@link CardSet}.
+	 */
+	public default CardSet cardSet() {
+		return CardSet.of(cards());
+	}
+
 	/**
 	 * Represents the street that this {@link Board} is on.
 	 * 
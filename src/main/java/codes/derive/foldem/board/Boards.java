@@ -18,7 +18,11 @@ package codes.derive.foldem.board;
 
 import static codes.derive.foldem.Poker.*;
 
+import java.util.Random;
+
 import codes.derive.foldem.Card;
+import codes.derive.foldem.CardSampler;
+import codes.derive.foldem.CardSet;
 import codes.derive.foldem.Deck;
 
 /**
@@ -246,4 +250,33 @@ public class Boards {
 		return convert(board, street, cards);
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Moves the {@link Board} specified to the specified {@link Street} and
+	 * adds random new cards that are neither dead nor already on the board,
+	 * using {@link CardSampler}.
+	 * 
+	 * @param board
+	 *            The board.
+	 * @param street
+	 *            The street to move the board to.
+	 * @param dead
+	 *            The cards that cannot be added to the board.
+	 * @param random
+	 *            The random number generator to use to choose new cards.
+	 * @return The {@link Board} at the new {@link Street} with random new
+	 *         cards.
+	 */
+	public static Board convert(Board board, Street street, CardSet dead, Random random) {
+		if (street.cardCount() < board.getStreet().cardCount()) {
+			return convert(board, street);
+		}
+
+		/*
+		 * Draw our new cards from the cards that are still available.
+		 */
+		Card[] cards = new Card[street.cardCount() - board.getStreet().cardCount()];
+		CardSampler.draw(dead.mask() | board.cardSet().mask(), cards, random);
+		return convert(board, street, cards);
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import codes.derive.foldem.Card;
+import codes.derive.foldem.Hand;
+import codes.derive.foldem.board.Board;
+
+/**
+ * An abstract evaluator for the 7462 rank scale used by
+ * {@link DefaultEvaluator}, where 0 is a royal flush and 7461 is the worst
+ * possible high card hand. The object based methods are implemented on top of
+ * {@link Evaluator#rank(long)}, falling back to
+ * {@link Evaluator#rank(int[], int)} for hands with a repeated card.
+ */
+public abstract class AbstractEvaluator implements Evaluator {
+
+	@Override
+	public abstract int rank(long cards);
+
+	@Override
+	public int rank(Hand h, Board b) {
+		long mask = 0L;
+		for (Card card : h.cards()) {
+			mask |= card.mask();
+		}
+		for (Card card : b.cards()) {
+			mask |= card.mask();
+		}
+		int len = h.cards().size() + b.cards().size();
+		if (Long.bitCount(mask) == len) {
+			return rank(mask);
+		}
+
+		/*
+		 * Repeated cards can't be told apart in a card mask, so leave them to
+		 * be ranked, or rejected, by card index.
+		 */
+		int[] cards = new int[len];
+		len = 0;
+		for (Card card : h.cards()) {
+			cards[len++] = card.index();
+		}
+		for (Card card : b.cards()) {
+			cards[len++] = card.index();
+		}
+		return rank(cards, len);
+	}
+
+	@Override
+	public HandValue value(Hand hand, Board board) {
+		return valueOf(rank(hand, board));
+	}
+
+	/**
+	 * Obtains the {@link HandValue} for the specified rank.
+	 *
+	 * @param rank
+	 *            The rank, as produced by this evaluator.
+	 * @return The {@link HandValue} for the specified rank.
+	 */
+	protected static HandValue valueOf(int rank) {
+		if (rank >= 6185) {
+			return HandValue.HIGH_CARD;
+		} else if (rank >= 3325) {
+			return HandValue.PAIR;
+		} else if (rank >= 2467) {
+			return HandValue.TWO_PAIR;
+		} else if (rank >= 1609) {
+			return HandValue.THREE_OF_A_KIND;
+		} else if (rank >= 1599) {
+			return HandValue.STRAIGHT;
+		} else if (rank >= 322) {
+			return HandValue.FLUSH;
+		} else if (rank >= 166) {
+			return HandValue.FULL_HOUSE;
+		} else if (rank >= 10) {
+			return HandValue.FOUR_OF_A_KIND;
+		} else {
+			return HandValue.STRAIGHT_FLUSH;
+		}
+	}
+
+}
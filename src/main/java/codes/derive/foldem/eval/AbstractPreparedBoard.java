@@ -0,0 +1,61 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import java.util.Iterator;
+
+import codes.derive.foldem.Card;
+import codes.derive.foldem.Hand;
+import codes.derive.foldem.board.Board;
+
+/**
+ * An abstract {@link PreparedBoard} for the 7462 rank scale used by
+ * {@link AbstractEvaluator}, implemented on top of
+ * {@link PreparedBoard#rank(int, int)}.
+ */
+abstract class AbstractPreparedBoard implements PreparedBoard {
+
+	/* The board that was prepared. */
+	private final Board board;
+
+	/**
+	 * Constructs a new {@link AbstractPreparedBoard} for the specified board.
+	 *
+	 * @param board
+	 *            The board that was prepared.
+	 */
+	AbstractPreparedBoard(Board board) {
+		this.board = board;
+	}
+
+	@Override
+	public Board board() {
+		return board;
+	}
+
+	@Override
+	public int rank(Hand hand) {
+		Iterator<Card> cards = hand.cards().iterator();
+		return rank(cards.next().index(), cards.next().index());
+	}
+
+	@Override
+	public HandValue value(Hand hand) {
+		return AbstractEvaluator.valueOf(rank(hand));
+	}
+
+}
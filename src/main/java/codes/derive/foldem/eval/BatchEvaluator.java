@@ -0,0 +1,159 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import java.util.Arrays;
+
+/**
+ * A hand evaluator producing the same ranks as {@link DefaultEvaluator} that
+ * ranks batches of 7 card hands given to {@link #rankAll(long[], int[])} in
+ * lanes.
+ *
+ * <p>
+ * Hands are ranked {@link #LANES} at a time, with the prime product and suit
+ * check of each 5 card combination computed for every lane in a simple loop
+ * over arrays that the JIT compiler can vectorize, and the rank table lookups
+ * for every lane issued together so that their memory accesses overlap. Hands
+ * that do not contain exactly 7 cards, and single hands, are ranked the same
+ * way {@link DefaultEvaluator} ranks them.
+ * </p>
+ */
+public class BatchEvaluator extends AbstractEvaluator {
+
+	/** The number of hands ranked together. **/
+	public static final int LANES = 8;
+
+	/* The number of cards in the hands ranked in lanes. */
+	private static final int CARDS = 7;
+
+	/* A 7 card hand used to fill the lanes of hands that are skipped. */
+	private static final long FILLER = (1L << CARDS) - 1;
+
+	/* The positions of the cards in each 5 card combination of 7 cards. */
+	private static final int[][] COMBINATIONS = new int[21][];
+
+	static {
+		int i = 0;
+		for (int a = 0; a < CARDS; a++) {
+			for (int b = a + 1; b < CARDS; b++) {
+				for (int c = b + 1; c < CARDS; c++) {
+					for (int d = c + 1; d < CARDS; d++) {
+						for (int e = d + 1; e < CARDS; e++) {
+							COMBINATIONS[i++] = new int[] { a, b, c, d, e };
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/* The evaluator used for hands that are not ranked in lanes. */
+	private final DefaultEvaluator scalar = new DefaultEvaluator();
+
+	@Override
+	public int rank(long cards) {
+		return scalar.rank(cards);
+	}
+
+	@Override
+	public int rank(int[] cards, int len) {
+		return scalar.rank(cards, len);
+	}
+
+	@Override
+	public void rankAll(long[] cards, int[] out) {
+		if (out.length < cards.length) {
+			throw new IllegalArgumentException("Output array is too small");
+		}
+		RankTable table = RankTable.get();
+
+		/*
+		 * Each card position has a row of lanes, holding the prime and suit
+		 * bit of the card at that position in each hand.
+		 */
+		int[] primes = new int[CARDS * LANES];
+		int[] suits = new int[CARDS * LANES];
+		int[] products = new int[LANES];
+		int[] keys = new int[LANES];
+		int[] ranks = new int[LANES];
+
+		int i = 0;
+		for (; i + LANES <= cards.length; i += LANES) {
+
+			/*
+			 * Unpack our hands into their lanes, filling the lanes of any that
+			 * are not 7 card hands so that we can rank them afterwards.
+			 */
+			boolean skipped = false;
+			for (int lane = 0; lane < LANES; lane++) {
+				long m = cards[i + lane];
+				if (Long.bitCount(m) != CARDS) {
+					m = FILLER;
+					skipped = true;
+				}
+				for (int k = 0; k < CARDS; k++, m &= m - 1) {
+					int index = Long.numberOfTrailingZeros(m);
+					primes[k * LANES + lane] = DefaultEvaluator.PRIMES[index];
+					suits[k * LANES + lane] = DefaultEvaluator.SUITS[index];
+				}
+			}
+
+			/*
+			 * Rank each combination in every lane, keeping the best rank found
+			 * for each lane.
+			 */
+			Arrays.fill(ranks, DefaultEvaluator.DISTINCT_VALUES);
+			for (int[] c : COMBINATIONS) {
+				int a = c[0] * LANES, b = c[1] * LANES, d = c[2] * LANES;
+				int e = c[3] * LANES, f = c[4] * LANES;
+				for (int lane = 0; lane < LANES; lane++) {
+					products[lane] = primes[a + lane] * primes[b + lane]
+							* primes[d + lane] * primes[e + lane] * primes[f + lane];
+				}
+				for (int lane = 0; lane < LANES; lane++) {
+					int s = suits[a + lane] | suits[b + lane] | suits[d + lane]
+							| suits[e + lane] | suits[f + lane];
+					keys[lane] = (s & (s - 1)) == 0 ? products[lane] | DefaultEvaluator.SUITED_MASK
+							: products[lane];
+				}
+				for (int lane = 0; lane < LANES; lane++) {
+					ranks[lane] = Math.min(ranks[lane], table.rank(keys[lane]));
+				}
+			}
+			System.arraycopy(ranks, 0, out, i, LANES);
+
+			/*
+			 * Rank any hands we skipped over.
+			 */
+			if (skipped) {
+				for (int lane = 0; lane < LANES; lane++) {
+					if (Long.bitCount(cards[i + lane]) != CARDS) {
+						out[i + lane] = this.scalar.rank(cards[i + lane]);
+					}
+				}
+			}
+		}
+
+		/*
+		 * Rank whatever is left over that didn't fill our lanes.
+		 */
+		for (; i < cards.length; i++) {
+			out[i] = scalar.rank(cards[i]);
+		}
+	}
+
+}
@@ -0,0 +1,285 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+import codes.derive.foldem.Card;
+import codes.derive.foldem.Hand;
+import codes.derive.foldem.board.Board;
+
+/**
+ * An {@link Evaluator} that remembers the ranks produced by another evaluator,
+ * keyed by the card mask of each ranked hand. Instances are safe to share
+ * between threads.
+ *
+ * <p>
+ * Ranks are held in a fixed number of slots grouped into sets of
+ * {@link #WAYS}, with each hand only ever stored in the set its mask hashes
+ * to. When a set is full the slot to reuse is chosen using the CLOCK
+ * algorithm, so hands that have been looked up since the set's hand last
+ * passed them are kept. Sets are guarded by a fixed number of locks, and
+ * lookups that find their hand do not need to take one.
+ * </p>
+ *
+ * <p>
+ * The evaluator being cached must rank hands by their cards alone and on the
+ * same scale as {@link DefaultEvaluator}, which is true of every evaluator in
+ * this package, as hand values are found from the cached ranks.
+ * </p>
+ */
+public class CachingEvaluator implements Evaluator {
+
+	/** The number of slots in each set. **/
+	public static final int WAYS = 4;
+
+	/* The number of locks guarding the sets. */
+	private static final int STRIPES = 64;
+
+	/* Multiplier used to hash card masks. */
+	private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	/* The evaluator being cached. */
+	private final Evaluator evaluator;
+
+	/* Contains the card mask held in each slot, 0 marks an empty slot. */
+	private final long[] keys;
+
+	/* Contains the rank held in each slot. */
+	private final int[] ranks;
+
+	/* Marks slots that have been looked up since the clock hand passed them. */
+	private final boolean[] referenced;
+
+	/* Contains the clock hand of each set. */
+	private final byte[] hands;
+
+	/* The locks guarding the sets, a set uses the lock at its index modulo STRIPES. */
+	private final StampedLock[] locks = new StampedLock[STRIPES];
+
+	/* The shift used to find the set for a hashed card mask. */
+	private final int shift;
+
+	/* Counts lookups that found their hand, lookups that didn't, and reused slots. */
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Constructs a new {@link CachingEvaluator} caching the specified
+	 * evaluator.
+	 *
+	 * @param evaluator
+	 *            The evaluator to cache.
+	 * @param capacity
+	 *            The number of ranks to hold, rounded up to a power of two
+	 *            holding at least one set per lock.
+	 */
+	public CachingEvaluator(Evaluator evaluator, int capacity) {
+		if (capacity <= 0 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Invalid capacity " + capacity);
+		}
+		int slots = Math.max(Integer.highestOneBit(capacity - 1) << 1, WAYS * STRIPES);
+		this.evaluator = evaluator;
+		this.keys = new long[slots];
+		this.ranks = new int[slots];
+		this.referenced = new boolean[slots];
+		this.hands = new byte[slots / WAYS];
+		this.shift = Long.SIZE - Integer.numberOfTrailingZeros(slots / WAYS);
+		for (int i = 0; i < STRIPES; i++) {
+			locks[i] = new StampedLock();
+		}
+	}
+
+	@Override
+	public int rank(Hand h, Board b) {
+		long mask = Card.mask(h.cards()) | Card.mask(b.cards());
+		if (Long.bitCount(mask) != h.cards().size() + b.cards().size()) {
+
+			/*
+			 * Repeated cards can't be told apart in a card mask.
+			 */
+			return evaluator.rank(h, b);
+		}
+		return rank(mask);
+	}
+
+	@Override
+	public int rank(int[] cards, int len) {
+		long mask = 0L;
+		for (int i = 0; i < len; i++) {
+			mask |= 1L << cards[i];
+		}
+		if (Long.bitCount(mask) != len) {
+			return evaluator.rank(cards, len);
+		}
+		return rank(mask);
+	}
+
+	@Override
+	public int rank(long cards) {
+		if (cards == 0) {
+			return evaluator.rank(cards);
+		}
+		int set = (int) ((cards * HASH_MULTIPLIER) >>> shift);
+		int base = set * WAYS;
+		StampedLock lock = locks[set & (STRIPES - 1)];
+
+		/*
+		 * Look for our hand without locking, making sure nobody changed the
+		 * set while we were looking.
+		 */
+		long stamp = lock.tryOptimisticRead();
+		int slot = find(base, cards);
+		int rank = slot >= 0 ? ranks[slot] : 0;
+		if (!lock.validate(stamp)) {
+			stamp = lock.readLock();
+			try {
+				slot = find(base, cards);
+				rank = slot >= 0 ? ranks[slot] : 0;
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+		if (slot >= 0) {
+
+			/*
+			 * Marking the slot without the lock may mark a slot that has
+			 * since been reused, which only costs it an extra pass of the
+			 * clock hand.
+			 */
+			referenced[slot] = true;
+			hits.increment();
+			return rank;
+		}
+
+		/*
+		 * Rank the hand without holding the lock, then store it unless
+		 * another thread got there first.
+		 */
+		misses.increment();
+		rank = evaluator.rank(cards);
+		stamp = lock.writeLock();
+		try {
+			if (find(base, cards) < 0) {
+				slot = victim(set);
+				if (keys[slot] != 0) {
+					evictions.increment();
+				}
+				keys[slot] = cards;
+				ranks[slot] = rank;
+				referenced[slot] = false;
+			}
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+		return rank;
+	}
+
+	@Override
+	public HandValue value(Hand hand, Board board) {
+		return AbstractEvaluator.valueOf(rank(hand, board));
+	}
+
+	/**
+	 * Obtains the number of lookups that found their hand in the cache.
+	 *
+	 * @return The number of cache hits.
+	 */
+	public long hits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Obtains the number of lookups that did not find their hand in the cache
+	 * and had to rank it.
+	 *
+	 * @return The number of cache misses.
+	 */
+	public long misses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Obtains the number of ranks that were removed from the cache to make
+	 * room for another.
+	 *
+	 * @return The number of evictions.
+	 */
+	public long evictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Obtains the number of ranks this cache can hold.
+	 *
+	 * @return The capacity of this cache.
+	 */
+	public int capacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Finds the slot holding the specified card mask in the set starting at
+	 * the specified slot.
+	 *
+	 * @param base
+	 *            The first slot of the set.
+	 * @param cards
+	 *            The card mask.
+	 * @return The slot holding the card mask, or -1 if it is not in the set.
+	 */
+	private int find(int base, long cards) {
+		for (int i = base; i < base + WAYS; i++) {
+			if (keys[i] == cards) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Chooses the slot to store a new rank in for the specified set, must be
+	 * called while holding the set's write lock.
+	 *
+	 * @param set
+	 *            The set.
+	 * @return The slot to store the new rank in.
+	 */
+	private int victim(int set) {
+		int base = set * WAYS;
+		for (int i = base; i < base + WAYS; i++) {
+			if (keys[i] == 0) {
+				return i;
+			}
+		}
+
+		/*
+		 * Advance the clock hand, giving slots that have been looked up
+		 * another chance, until we find one that hasn't.
+		 */
+		int hand = hands[set];
+		while (referenced[base + hand]) {
+			referenced[base + hand] = false;
+			hand = (hand + 1) % WAYS;
+		}
+		hands[set] = (byte) ((hand + 1) % WAYS);
+		return base + hand;
+	}
+
+}
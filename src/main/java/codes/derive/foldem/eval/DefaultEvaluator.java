@@ -16,32 +16,33 @@
  */
 package codes.derive.foldem.eval;
 
-import java.io.DataInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.Files;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
 
 import codes.derive.foldem.Card;
+import codes.derive.foldem.Constants;
 import codes.derive.foldem.Hand;
+import codes.derive.foldem.Suit;
 import codes.derive.foldem.board.Board;
 
 /**
  * A hand evaluator using Cactus Kev's 5 card system adopted for 7 card hands
  * using the 21-combinations method.
+ * 
+ * <p>
+ * The 5 card rank table is loaded on the first call to a rank method, from a
+ * file named <code>rank_data</code> in the working directory if one exists,
+ * otherwise from the copy bundled with this library. A local file that is not
+ * a valid rank table for this version of the library is rejected rather than
+ * used.
+ * </p>
  */
-public class DefaultEvaluator implements Evaluator {
+public class DefaultEvaluator extends AbstractEvaluator {
 	
 	/* Bitmask for suited 5-card hand hashes. */
-	private static final int SUITED_MASK = 0x80000000;
+	static final int SUITED_MASK = 0x80000000;
 	
 	/* The number of possible distinct 5 card hands. */
-	private static final int DISTINCT_VALUES = 7462;
+	static final int DISTINCT_VALUES = 7462;
 	
 	/* Prime value mappings for cards. */
 	private static final int PRIME_DEUCE = 2;
@@ -58,158 +59,342 @@ public class DefaultEvaluator implements Evaluator {
 	private static final int PRIME_KING = 37;
 	private static final int PRIME_ACE = 41;
 
+	/* The number of distinct card values. */
+	private static final int VALUES = 13;
+
 	/* Contains card values ordered by rank. */
 	protected static final int[] CARD_RANKS = { PRIME_ACE, PRIME_DEUCE,
 			PRIME_TREY, PRIME_FOUR, PRIME_FIVE, PRIME_SIX, PRIME_SEVEN,
 			PRIME_EIGHT, PRIME_NINE, PRIME_TEN, PRIME_JACK, PRIME_QUEEN,
 			PRIME_KING };
 	
-	/* Contains ranking values mapped to their respective hashes. */
-	private static final Map<Integer, Short> rankings = new HashMap<>();
+	/* The number of bits used to hold a packed card index. */
+	private static final int INDEX_BITS = 6;
+	
+	/* Bitmask for a single packed card index. */
+	private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+	
+	/* The maximum number of cards that can be packed and ranked. */
+	private static final int MAX_CARDS = Long.SIZE / INDEX_BITS;
+	
+	/* Contains the prime value for each card index. */
+	static final int[] PRIMES = new int[Constants.DECK_SIZE];
+
+	/* Contains a bit for the suit of each card index. */
+	static final int[] SUITS = new int[Constants.DECK_SIZE];
 
 	static {
-		
-		InputStream in;
-		
-		// Try to find a stream for our rank data.
-		Path path = Paths.get("rank_data");
-		if (Files.exists(path)) {
-			try {
-				in = Files.newInputStream(path);
-			} catch (IOException e) {
-				throw new RuntimeException("Could not load rank_data from local file", e);
-			}
-		} else {
-			in = DefaultEvaluator.class.getResourceAsStream("rank_data");
-		}
-		
-		// Read the rank data from the stream and store it
-		try (DataInputStream din = new DataInputStream(in)) {
-			for (short i = 0; i < DISTINCT_VALUES; i++) {
-				rankings.put(din.readInt(), i);
-			}
-			din.close();
-		} catch (IOException e) {
-			throw new RuntimeException("Could not load rank_data resource, "
-					+ "make sure Foldem was built correctly", e);
+		for (int i = 0; i < Constants.DECK_SIZE; i++) {
+			PRIMES[i] = CARD_RANKS[Card.value(i)];
+			SUITS[i] = 1 << Card.suit(i).ordinal();
 		}
 	}
 	
 	@Override
-	public int rank(Hand h, Board b) {
+	public int rank(long cards) {
 		
 		/*
-		 * Create a list to hold 21 5 card hands created from our 7 card hands.
+		 * Pack the indices of the cards in our mask for ranking.
 		 */
-		List<Card[]> hands = new ArrayList<>(21);
-
-		/*
-		 * Group our community cards with the cards in our hand to create a base
-		 * combination.
-		 */
-		List<Card> original = new ArrayList<>();
-		original.addAll(h.cards());
-		original.addAll(b.cards());
-		
-		/*
-		 * Initialize two size indicating constants for our k-combination.
-		 */
-		final int n = original.size();
-		final int k = 5;
+		int len = 0;
+		long packed = 0L;
+		for (long m = cards; m != 0; m &= m - 1, len++) {
+			packed |= pack(Long.numberOfTrailingZeros(m), len);
+		}
+		return rank(packed, len);
+	}
+	
+	@Override
+	public int rank(int[] cards, int len) {
+		long packed = 0L;
+		for (int i = 0; i < len; i++) {
+			packed |= pack(cards[i], i);
+		}
+		return rank(packed, len);
+	}
+	
+	@Override
+	public void rankAll(Hand hand, Board[] boards, int[] out) {
+		if (out.length < boards.length) {
+			throw new IllegalArgumentException("Output array is too small");
+		}
 		
 		/*
-		 * Initialize our helper array to hold offset information.
+		 * Pack our hand's cards once, then pack each board after them.
 		 */
-		int[] bitVector = new int[k + 1];
-		for (int i = 0; i <= k; i++) {
-			bitVector[i] = i;
+		int n = 0;
+		long packed = 0L;
+		for (Card card : hand.cards()) {
+			packed |= pack(card.index(), n++);
 		}
+		for (int i = 0; i < boards.length; i++) {
+			int len = n;
+			long cards = packed;
+			for (Card card : boards[i].cards()) {
+				cards |= pack(card.index(), len++);
+			}
+			out[i] = rank(cards, len);
+		}
+	}
+	
+	@Override
+	public PreparedBoard prepare(Board board) {
+		return new Prepared(board);
+	}
+	
+	/**
+	 * Ranks a hand of up to {@link #MAX_CARDS} cards with its card indices
+	 * packed into a single value.
+	 * 
+	 * @param cards
+	 *            The card indices, packed {@link #INDEX_BITS} bits per card.
+	 * @param n
+	 *            The number of cards in the hand.
+	 * @return The rank of the hand.
+	 */
+	private static int rank(long cards, int n) {
 		
 		/*
-		 * Begin creating combinations.
+		 * Visit each 5 card combination of our cards, accumulating the encoded
+		 * value and the suits of the combination as we go.
 		 */
-		int endIndex = 1;
-		while (!((endIndex == 0 || (k > n)))) {
-			Card[] currentCombination = new Card[k];
-			for (int i = 1; i <= k; i++) {
-				int index = bitVector[i] - 1;
-				currentCombination[i - 1] = original.get(index);
-				
-			}
-			endIndex = k;
-			while (bitVector[endIndex] == n - k + endIndex) {
-				endIndex--;
-				if (endIndex == 0) {
-					break;
+		int rank = DISTINCT_VALUES;
+		for (int a = 0; a < n; a++) {
+			int ca = unpack(cards, a);
+			for (int b = a + 1; b < n; b++) {
+				int cb = unpack(cards, b);
+				int pb = PRIMES[ca] * PRIMES[cb];
+				int sb = SUITS[ca] | SUITS[cb];
+				for (int c = b + 1; c < n; c++) {
+					int cc = unpack(cards, c);
+					int pc = pb * PRIMES[cc];
+					int sc = sb | SUITS[cc];
+					for (int d = c + 1; d < n; d++) {
+						int cd = unpack(cards, d);
+						int pd = pc * PRIMES[cd];
+						int sd = sc | SUITS[cd];
+						for (int e = d + 1; e < n; e++) {
+							int ce = unpack(cards, e);
+							int se = sd | SUITS[ce];
+							
+							/*
+							 * Our combination is suited if only one suit bit
+							 * is set, in which case we lookup its flush rank.
+							 */
+							int r = rank5(pd * PRIMES[ce], (se & (se - 1)) == 0);
+							if (r < rank) {
+								rank = r;
+							}
+						}
+					}
 				}
 			}
-			bitVector[endIndex]++;
-			for (int i = endIndex + 1; i <= k; i++) {
-				bitVector[i] = bitVector[i - 1] + 1;
+		}
+		return rank;
+	}
+	
+	/**
+	 * Finds the best rank among the 5 card combinations of the specified card
+	 * primes, treating every combination as either suited or unsuited.
+	 * 
+	 * @param primes
+	 *            The prime value of each card.
+	 * @param n
+	 *            The number of cards.
+	 * @param suited
+	 *            Whether or not the cards are all of the same suit.
+	 * @return The best rank found.
+	 */
+	private static int best(int[] primes, int n, boolean suited) {
+		int rank = DISTINCT_VALUES;
+		for (int a = 0; a < n; a++) {
+			for (int b = a + 1; b < n; b++) {
+				int pb = primes[a] * primes[b];
+				for (int c = b + 1; c < n; c++) {
+					int pc = pb * primes[c];
+					for (int d = c + 1; d < n; d++) {
+						int pd = pc * primes[d];
+						for (int e = d + 1; e < n; e++) {
+							int r = rank5(pd * primes[e], suited);
+							if (r < rank) {
+								rank = r;
+							}
+						}
+					}
+				}
 			}
-			hands.add(currentCombination);
 		}
+		return rank;
+	}
+	
+	/**
+	 * Packs the specified card index at the specified position.
+	 * 
+	 * @param index
+	 *            The card index.
+	 * @param position
+	 *            The position of the card in the hand.
+	 * @return The packed card index.
+	 */
+	private static long pack(int index, int position) {
+		if (position >= MAX_CARDS) {
+			throw new IllegalArgumentException("Cannot rank more than "
+					+ MAX_CARDS + " cards");
+		}
+		return (long) index << (position * INDEX_BITS);
+	}
+	
+	/**
+	 * Unpacks the card index at the specified position.
+	 * 
+	 * @param cards
+	 *            The packed card indices.
+	 * @param position
+	 *            The position of the card in the hand.
+	 * @return The card index.
+	 */
+	private static int unpack(long cards, int position) {
+		return (int) (cards >>> (position * INDEX_BITS)) & INDEX_MASK;
+	}
+
+	/**
+	 * Obtains the rank of the 5 card hand with the specified prime product,
+	 * as found in the rank table.
+	 * 
+	 * @param product
+	 *            The product of the primes for each card in the hand.
+	 * @param suited
+	 *            Whether or not all 5 cards are of the same suit.
+	 * @return The rank of the 5 card hand.
+	 */
+	static int rank5(int product, boolean suited) {
+		return RankTable.get().rank(suited ? product | SUITED_MASK : product);
+	}
+	
+	/**
+	 * Obtains the time it took to load the rank table used by this evaluator,
+	 * in nanoseconds. The table will be loaded if it has not been already.
+	 * 
+	 * @return The time it took to load the rank table, in nanoseconds.
+	 */
+	public static long loadTime() {
+		return RankTable.get().loadTime();
+	}
+
+	/*
+	 * A board prepared by this evaluator. A hand's rank is the better of its
+	 * best rank ignoring flushes, which only depends on the values of its
+	 * cards, and its best flush, which only depends on the values of its cards
+	 * in the one suit the board could make a flush in. Both are remembered the
+	 * first time they are found, so hands with the same card values are only
+	 * ranked once.
+	 */
+	private static final class Prepared extends AbstractPreparedBoard {
 		
-		/*
-		 * Find the hand within the combination with the highest rank, which
-		 * translates to the lowest rank number.
+		/* The number of cards on the board. */
+		private final int n;
+		
+		/* Contains the prime value of each board card. */
+		private final int[] primes;
+		
+		/* The suit bit of the suit the board could make a flush in, or 0. */
+		private final int flushSuit;
+		
+		/* The number of board cards in the flush suit. */
+		private final int flushCards;
+		
+		/* Contains the prime value of each board card in the flush suit. */
+		private final int[] flushPrimes;
+		
+		/* Ranks ignoring flushes plus one, indexed by card values. */
+		private final short[] ranks = new short[VALUES * VALUES];
+		
+		/* Flush ranks plus one, indexed by card values plus one in the flush suit. */
+		private final short[] flushes = new short[(VALUES + 1) * (VALUES + 1)];
+		
+		/**
+		 * Prepares the specified board.
+		 * 
+		 * @param board
+		 *            The board to prepare.
 		 */
-		int rank = DISTINCT_VALUES;
-		for (Card[] cards : hands) {
-			boolean suited = true;
+		private Prepared(Board board) {
+			super(board);
+			n = board.cards().size();
+			int[] indices = new int[n];
+			int[] counts = new int[Suit.values().length];
+			int k = 0;
+			for (Card card : board.cards()) {
+				indices[k++] = card.index();
+				counts[card.getSuit().ordinal()]++;
+			}
 			
 			/*
-			 * Find the encoded value of our hand for the lookup table.
+			 * A flush needs 3 cards of its suit on the board, which only one
+			 * suit can have.
 			 */
-			int value = CARD_RANKS[cards[0].getValue()];
-			for (int i = 1; i < cards.length; i++) {
-				value *= CARD_RANKS[cards[i].getValue()];
-				if (!cards[i].getSuit().equals(cards[0].getSuit())) {
-					suited = false;
+			int suit = 0;
+			for (int i = 0; i < counts.length; i++) {
+				if (counts[i] >= Constants.BOARD_SIZE - Constants.HAND_SIZE) {
+					suit = 1 << i;
 				}
 			}
-	
+			flushSuit = suit;
+			
+			primes = new int[n + Constants.HAND_SIZE];
+			flushPrimes = new int[n + Constants.HAND_SIZE];
+			k = 0;
+			for (int i = 0; i < n; i++) {
+				primes[i] = PRIMES[indices[i]];
+				if (SUITS[indices[i]] == flushSuit) {
+					flushPrimes[k++] = PRIMES[indices[i]];
+				}
+			}
+			flushCards = k;
+		}
+		
+		@Override
+		public int rank(int c0, int c1) {
+			int v0 = Card.value(c0), v1 = Card.value(c1);
+			
 			/*
-			 * If our hand is suited, apply a bit mask to our hand's encoded
-			 * value indicating that it is.
+			 * Find our rank ignoring flushes.
 			 */
-			if (suited) {
-				value |= SUITED_MASK;
+			int slot = Math.min(v0, v1) * VALUES + Math.max(v0, v1);
+			int rank = ranks[slot] - 1;
+			if (rank < 0) {
+				int[] p = Arrays.copyOf(primes, primes.length);
+				p[n] = PRIMES[c0];
+				p[n + 1] = PRIMES[c1];
+				rank = best(p, n + Constants.HAND_SIZE, false);
+				ranks[slot] = (short) (rank + 1);
 			}
-
+			if (flushSuit == 0) {
+				return rank;
+			}
+			
 			/*
-			 * Finally, we obtain our rank from the hash map.
+			 * Then find our best flush, if we can make one.
 			 */
-			int r = rankings.get(value);
-			if (r < rank) {
-				rank = r;
+			int f0 = SUITS[c0] == flushSuit ? v0 + 1 : 0;
+			int f1 = SUITS[c1] == flushSuit ? v1 + 1 : 0;
+			slot = Math.min(f0, f1) * (VALUES + 1) + Math.max(f0, f1);
+			int flush = flushes[slot] - 1;
+			if (flush < 0) {
+				int[] p = Arrays.copyOf(flushPrimes, flushPrimes.length);
+				int k = flushCards;
+				if (f0 > 0) {
+					p[k++] = PRIMES[c0];
+				}
+				if (f1 > 0) {
+					p[k++] = PRIMES[c1];
+				}
+				flush = best(p, k, true);
+				flushes[slot] = (short) (flush + 1);
 			}
+			return Math.min(rank, flush);
 		}
-		return rank;
-	}
-
-	@Override
-	public HandValue value(Hand hand, Board board) {
-		int rank = rank(hand, board);
-		if (rank >= 6185) {
-			return HandValue.HIGH_CARD;  
-		} else if (rank >= 3325) {
-			return HandValue.PAIR;
-		} else if (rank >= 2467) {
-			return HandValue.TWO_PAIR;
-		} else if (rank >= 1609) {
-			return HandValue.THREE_OF_A_KIND;
-		} else if (rank >= 1599) {
-			return HandValue.STRAIGHT;
-		} else if (rank >= 322) {
-			return HandValue.FLUSH;
-		} else if (rank >= 166) {
-			return HandValue.FULL_HOUSE;
-		} else if (rank >= 10) {
-			return HandValue.FOUR_OF_A_KIND;
-		} else {
-			return HandValue.STRAIGHT_FLUSH;
-		}
+		
 	}
 
 }
@@ -16,8 +16,13 @@
  */
 package codes.derive.foldem.eval;
 
+import java.util.Arrays;
+
+import codes.derive.foldem.Card;
+import codes.derive.foldem.Constants;
 import codes.derive.foldem.Hand;
 import codes.derive.foldem.board.Board;
+import codes.derive.foldem.board.Boards;
 
 /**
  * A type that performs evaluations by returning a rank for a specified
@@ -43,6 +48,86 @@ public interface Evaluator {
 	 */
 	public int rank(Hand h, Board b);
 
+	/**
+	 * Ranks the 7 card hand containing the cards with the specified indices,
+	 * without creating any objects. See {@link Card#index()} for information
+	 * on card indices.
+	 * 
+	 * <p>
+	 * By default this delegates to {@link Evaluator#rank(long)}.
+	 * </p>
+	 * 
+	 * @param c0
+	 *            The index of the first card.
+	 * @param c1
+	 *            The index of the second card.
+	 * @param c2
+	 *            The index of the third card.
+	 * @param c3
+	 *            The index of the fourth card.
+	 * @param c4
+	 *            The index of the fifth card.
+	 * @param c5
+	 *            The index of the sixth card.
+	 * @param c6
+	 *            The index of the seventh card.
+	 * @return The rank of the hand containing the specified cards.
+	 */
+	public default int rank(int c0, int c1, int c2, int c3, int c4, int c5, int c6) {
+		return rank(1L << c0 | 1L << c1 | 1L << c2 | 1L << c3 | 1L << c4
+				| 1L << c5 | 1L << c6);
+	}
+
+	/**
+	 * Ranks the hand containing the cards with the indices held in the first
+	 * <code>len</code> elements of the specified array. See
+	 * {@link Card#index()} for information on card indices.
+	 * 
+	 * <p>
+	 * By default this delegates to {@link Evaluator#rank(long)}.
+	 * </p>
+	 * 
+	 * @param cards
+	 *            An array containing the card indices.
+	 * @param len
+	 *            The number of cards in the hand.
+	 * @return The rank of the hand containing the specified cards.
+	 */
+	public default int rank(int[] cards, int len) {
+		long mask = 0L;
+		for (int i = 0; i < len; i++) {
+			mask |= 1L << cards[i];
+		}
+		return rank(mask);
+	}
+
+	/**
+	 * Ranks the hand containing the cards whose index bits are set in the
+	 * specified mask. See {@link Card#mask()} for information on card masks.
+	 * 
+	 * <p>
+	 * By default the first two cards are used as the {@link Hand} and the rest
+	 * as the {@link Board} for a call to {@link Evaluator#rank(Hand, Board)},
+	 * implementations should override this to avoid creating objects.
+	 * </p>
+	 * 
+	 * @param cards
+	 *            The card mask.
+	 * @return The rank of the hand containing the specified cards.
+	 */
+	public default int rank(long cards) {
+		Card[] all = new Card[Long.bitCount(cards)];
+		if (all.length < Constants.HAND_SIZE) {
+			throw new IllegalArgumentException("Not enough cards to rank");
+		}
+		for (int i = 0; cards != 0; cards &= cards - 1) {
+			int index = Long.numberOfTrailingZeros(cards);
+			all[i++] = Card.of(index);
+		}
+		Hand hand = Hand.of(all[0], all[1]);
+		return rank(hand, Boards.board(Arrays.copyOfRange(all, Constants.HAND_SIZE, all.length)));
+	}
+
 	/**
 	 * Obtains the value of the specified {@link Hand} on the specified
 	 * {@link Board}.
@@ -56,4 +141,101 @@ public interface Evaluator {
 	 */
 	public HandValue value(Hand hand, Board board);
 
+	/**
+	 * Ranks each of the specified hands on the specified board, storing the
+	 * rank of each hand at the same position in the output array. The hands
+	 * must not contain any of the board's cards.
+	 * 
+	 * <p>
+	 * By default the board is prepared once using
+	 * {@link Evaluator#prepare(Board)} and each hand is ranked on it.
+	 * </p>
+	 * 
+	 * @param hands
+	 *            The hands to rank.
+	 * @param board
+	 *            The board to rank them on.
+	 * @param out
+	 *            The array to store the ranks in, at least as long as the
+	 *            array of hands.
+	 */
+	public default void rankAll(Hand[] hands, Board board, int[] out) {
+		if (out.length < hands.length) {
+			throw new IllegalArgumentException("Output array is too small");
+		}
+		PreparedBoard prepared = prepare(board);
+		for (int i = 0; i < hands.length; i++) {
+			out[i] = prepared.rank(hands[i]);
+		}
+	}
+
+	/**
+	 * Ranks the specified hand on each of the specified boards, storing the
+	 * rank on each board at the same position in the output array.
+	 * 
+	 * <p>
+	 * By default this calls {@link Evaluator#rank(Hand, Board)} for each
+	 * board, implementations should override this to share the work that only
+	 * depends on the hand.
+	 * </p>
+	 * 
+	 * @param hand
+	 *            The hand to rank.
+	 * @param boards
+	 *            The boards to rank it on.
+	 * @param out
+	 *            The array to store the ranks in, at least as long as the
+	 *            array of boards.
+	 */
+	public default void rankAll(Hand hand, Board[] boards, int[] out) {
+		if (out.length < boards.length) {
+			throw new IllegalArgumentException("Output array is too small");
+		}
+		for (int i = 0; i < boards.length; i++) {
+			out[i] = rank(hand, boards[i]);
+		}
+	}
+
+	/**
+	 * Ranks each of the hands in the specified array of card masks, storing
+	 * the rank of each hand at the same position in the output array. See
+	 * {@link Card#mask()} for information on card masks.
+	 * 
+	 * <p>
+	 * By default this calls {@link Evaluator#rank(long)} for each hand.
+	 * </p>
+	 * 
+	 * @param cards
+	 *            The card masks of the hands to rank.
+	 * @param out
+	 *            The array to store the ranks in, at least as long as the
+	 *            array of card masks.
+	 */
+	public default void rankAll(long[] cards, int[] out) {
+		if (out.length < cards.length) {
+			throw new IllegalArgumentException("Output array is too small");
+		}
+		for (int i = 0; i < cards.length; i++) {
+			out[i] = rank(cards[i]);
+		}
+	}
+
+	/**
+	 * Prepares the specified {@link Board} so that many hands can be ranked
+	 * on it without repeating the work that only depends on the board.
+	 *
+	 * <p>
+	 * By default the returned {@link PreparedBoard} only holds the board's
+	 * card mask, implementations should override this to share as much work
+	 * as possible between hands.
+	 * </p>
+	 *
+	 * @param board
+	 *            The board to prepare.
+	 * @return The prepared board.
+	 */
+	public default PreparedBoard prepare(Board board) {
+		return new SimplePreparedBoard(this, board);
+	}
+
 }
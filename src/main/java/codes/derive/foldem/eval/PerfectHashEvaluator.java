@@ -0,0 +1,402 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import codes.derive.foldem.Card;
+import codes.derive.foldem.Constants;
+import codes.derive.foldem.Hand;
+import codes.derive.foldem.board.Board;
+
+/**
+ * A hand evaluator that ranks 5, 6 and 7 card hands directly with a single
+ * table lookup, rather than ranking each 5 card combination.
+ *
+ * <p>
+ * Hands containing five or more cards of one suit are ranked using a table
+ * indexed by the card values of that suit. All other hands are ranked using a
+ * minimal perfect hash of how many cards of each value they hold. Both tables
+ * are derived from the {@link DefaultEvaluator} rank table, so the ranks
+ * produced by this evaluator are identical to the ones produced by
+ * {@link DefaultEvaluator}.
+ * </p>
+ */
+public class PerfectHashEvaluator extends AbstractEvaluator {
+
+	/* The number of distinct card values. */
+	private static final int VALUES = 13;
+
+	/* The minimum and maximum number of cards that can be ranked. */
+	private static final int MIN_CARDS = 5;
+	private static final int MAX_CARDS = 7;
+
+	/* The number of bits used to count cards of each value. */
+	private static final int COUNT_BITS = 3;
+
+	/* Bitmask for the card values held in a single suit. */
+	private static final int SUIT_MASK = (1 << VALUES) - 1;
+
+	/*
+	 * Hash offsets for each card value, indexed by the card value, the number
+	 * of cards left to hash, and the number of cards held of that value.
+	 */
+	private static final int[] OFFSETS = new int[VALUES * (MAX_CARDS + 1) * 5];
+
+	/* Offsets into the rank table for each card count. */
+	private static final int[] BASES = new int[MAX_CARDS + 1];
+
+	/* The value count increment for each card index. */
+	private static final long[] COUNTS = new long[Constants.DECK_SIZE];
+
+	/* Ranks for hands without a flush, indexed by their hash. */
+	private static final short[] RANKS;
+
+	/* Ranks for flushes, indexed by the card values of the flush suit. */
+	private static final short[] FLUSHES = new short[1 << VALUES];
+
+	static {
+		for (int i = 0; i < Constants.DECK_SIZE; i++) {
+			COUNTS[i] = 1L << (Card.value(i) * COUNT_BITS);
+		}
+
+		/*
+		 * Find the number of ways the remaining cards can be spread across
+		 * card values, allowing at most 4 cards of any value.
+		 */
+		int[][] ways = new int[VALUES + 1][MAX_CARDS + 1];
+		ways[VALUES][0] = 1;
+		for (int v = VALUES - 1; v >= 0; v--) {
+			for (int k = 0; k <= MAX_CARDS; k++) {
+				for (int c = 0; c <= 4 && c <= k; c++) {
+					ways[v][k] += ways[v + 1][k - c];
+				}
+			}
+		}
+
+		/*
+		 * Build our hash offsets, a hand's hash is its position among all hands
+		 * with the same number of cards ordered by their value counts.
+		 */
+		for (int v = 0; v < VALUES; v++) {
+			for (int k = 0; k <= MAX_CARDS; k++) {
+				int offset = 0;
+				for (int c = 0; c <= 4; c++) {
+					OFFSETS[offset(v, k, c)] = offset;
+					if (c <= k) {
+						offset += ways[v + 1][k - c];
+					}
+				}
+			}
+		}
+		int size = 0;
+		for (int n = MIN_CARDS; n <= MAX_CARDS; n++) {
+			BASES[n] = size;
+			size += ways[0][n];
+		}
+		RANKS = new short[size];
+
+		/*
+		 * Rank every non-flush hand, 5 card hands come straight from the rank
+		 * table and larger hands take the best hand with one card removed.
+		 */
+		for (int n = MIN_CARDS; n <= MAX_CARDS; n++) {
+			populate(0, n, 0L);
+		}
+
+		/*
+		 * Rank every flush in the same manner.
+		 */
+		for (int values = 0; values <= SUIT_MASK; values++) {
+			int count = Integer.bitCount(values);
+			if (count < MIN_CARDS || count > MAX_CARDS) {
+				continue;
+			}
+			int rank = DefaultEvaluator.DISTINCT_VALUES;
+			if (count == MIN_CARDS) {
+				int product = 1;
+				for (int v = 0; v < VALUES; v++) {
+					if ((values & (1 << v)) != 0) {
+						product *= DefaultEvaluator.CARD_RANKS[v];
+					}
+				}
+				rank = DefaultEvaluator.rank5(product, true);
+			} else {
+				for (int v = 0; v < VALUES; v++) {
+					if ((values & (1 << v)) != 0) {
+						rank = Math.min(rank, FLUSHES[values & ~(1 << v)]);
+					}
+				}
+			}
+			FLUSHES[values] = (short) rank;
+		}
+	}
+
+	@Override
+	public int rank(long cards) {
+		long counts = 0;
+		for (long m = cards; m != 0; m &= m - 1) {
+			counts += COUNTS[Long.numberOfTrailingZeros(m)];
+		}
+		return rank(cards, counts, Long.bitCount(cards));
+	}
+
+	@Override
+	public int rank(int[] cards, int len) {
+		long mask = 0, counts = 0;
+		for (int i = 0; i < len; i++) {
+			mask |= 1L << cards[i];
+			counts += COUNTS[cards[i]];
+		}
+
+		/*
+		 * A repeated card would count a value more than four times, which
+		 * the hash can't represent.
+		 */
+		if (Long.bitCount(mask) != len) {
+			throw new IllegalArgumentException("Cannot rank a hand with a repeated card");
+		}
+		return rank(mask, counts, len);
+	}
+
+	@Override
+	public void rankAll(Hand hand, Board[] boards, int[] out) {
+		if (out.length < boards.length) {
+			throw new IllegalArgumentException("Output array is too small");
+		}
+		long mask = 0, counts = 0;
+		for (Card card : hand.cards()) {
+			mask |= card.mask();
+			counts += COUNTS[card.index()];
+		}
+		int n = hand.cards().size();
+		for (int i = 0; i < boards.length; i++) {
+			long m = mask, c = counts;
+			for (Card card : boards[i].cards()) {
+				m |= card.mask();
+				c += COUNTS[card.index()];
+			}
+			if (Long.bitCount(m) != n + boards[i].cards().size()) {
+				throw new IllegalArgumentException("Cannot rank a hand with a repeated card");
+			}
+			out[i] = rank(m, c, n + boards[i].cards().size());
+		}
+	}
+
+	@Override
+	public PreparedBoard prepare(Board board) {
+		return new Prepared(board);
+	}
+
+	/**
+	 * Ranks a hand using its card mask and value counts.
+	 *
+	 * @param cards
+	 *            The card mask.
+	 * @param counts
+	 *            The number of cards held of each value, packed
+	 *            {@link #COUNT_BITS} bits per value.
+	 * @param n
+	 *            The number of cards in the hand.
+	 * @return The rank of the hand.
+	 */
+	private static int rank(long cards, long counts, int n) {
+		if (n < MIN_CARDS) {
+			return DefaultEvaluator.DISTINCT_VALUES;
+		}
+		if (n > MAX_CARDS) {
+			throw new IllegalArgumentException("Cannot rank more than "
+					+ MAX_CARDS + " cards");
+		}
+
+		/*
+		 * A hand holding five cards of a suit can only be beaten by a better
+		 * hand in that suit, so check for flushes first. Card indices are
+		 * grouped by suit so each suit's values can be read straight from the
+		 * mask.
+		 */
+		for (int shift = 0; shift < Constants.DECK_SIZE; shift += VALUES) {
+			int values = (int) (cards >>> shift) & SUIT_MASK;
+			if (Integer.bitCount(values) >= MIN_CARDS) {
+				return FLUSHES[values];
+			}
+		}
+		return RANKS[BASES[n] + hash(counts, n)];
+	}
+
+	/**
+	 * Finds the perfect hash for the specified packed value counts.
+	 *
+	 * @param counts
+	 *            The number of cards held of each value, packed
+	 *            {@link #COUNT_BITS} bits per value.
+	 * @param n
+	 *            The number of cards in the hand.
+	 * @return The hash, unique among hands with the same number of cards.
+	 */
+	private static int hash(long counts, int n) {
+		int hash = 0;
+		for (int v = 0; n > 0; v++) {
+			int c = (int) (counts >>> (v * COUNT_BITS)) & 7;
+			hash += OFFSETS[offset(v, n, c)];
+			n -= c;
+		}
+		return hash;
+	}
+
+	/**
+	 * Populates the rank table for every hand containing the specified number
+	 * of cards, recursively assigning counts to each card value.
+	 *
+	 * @param v
+	 *            The card value to assign a count to.
+	 * @param remaining
+	 *            The number of cards left to assign.
+	 * @param counts
+	 *            The counts assigned so far.
+	 */
+	private static void populate(int v, int remaining, long counts) {
+		if (v == VALUES) {
+			if (remaining == 0) {
+				populate(counts);
+			}
+			return;
+		}
+		for (int c = 0; c <= 4 && c <= remaining; c++) {
+			populate(v + 1, remaining - c, counts + ((long) c << (v * COUNT_BITS)));
+		}
+	}
+
+	/**
+	 * Ranks the hand with the specified value counts and stores it in the rank
+	 * table.
+	 *
+	 * @param counts
+	 *            The number of cards held of each value.
+	 */
+	private static void populate(long counts) {
+		int n = 0, product = 1;
+		for (int v = 0; v < VALUES; v++) {
+			int c = (int) (counts >>> (v * COUNT_BITS)) & 7;
+			for (int i = 0; i < c; i++) {
+				product *= DefaultEvaluator.CARD_RANKS[v];
+			}
+			n += c;
+		}
+
+		int rank = DefaultEvaluator.DISTINCT_VALUES;
+		if (n == MIN_CARDS) {
+			rank = DefaultEvaluator.rank5(product, false);
+		} else {
+			for (int v = 0; v < VALUES; v++) {
+				long card = 1L << (v * COUNT_BITS);
+				if (((counts >>> (v * COUNT_BITS)) & 7) != 0) {
+					rank = Math.min(rank, RANKS[BASES[n - 1] + hash(counts - card, n - 1)]);
+				}
+			}
+		}
+		RANKS[BASES[n] + hash(counts, n)] = (short) rank;
+	}
+
+	/**
+	 * Finds the position of a hash offset in {@link #OFFSETS}.
+	 *
+	 * @param v
+	 *            The card value.
+	 * @param remaining
+	 *            The number of cards left to hash.
+	 * @param count
+	 *            The number of cards held of the value.
+	 * @return The position of the offset.
+	 */
+	private static int offset(int v, int remaining, int count) {
+		return (v * (MAX_CARDS + 1) + remaining) * 5 + count;
+	}
+
+	/*
+	 * A board prepared by this evaluator, holding the board's value counts and
+	 * the one suit it could make a flush in so that only that suit needs to
+	 * be checked for each hand.
+	 */
+	private static final class Prepared extends AbstractPreparedBoard {
+
+		/* The card mask of the board. */
+		private final long mask;
+
+		/* The value counts of the board. */
+		private final long counts;
+
+		/* The number of cards in a hand ranked on the board. */
+		private final int n;
+
+		/* The shift of the suit the board could make a flush in, or -1. */
+		private final int flushShift;
+
+		/**
+		 * Prepares the specified board.
+		 *
+		 * @param board
+		 *            The board to prepare.
+		 */
+		private Prepared(Board board) {
+			super(board);
+			long mask = 0, counts = 0;
+			for (Card card : board.cards()) {
+				mask |= card.mask();
+				counts += COUNTS[card.index()];
+			}
+			this.mask = mask;
+			this.counts = counts;
+			this.n = board.cards().size() + Constants.HAND_SIZE;
+			if (n > MAX_CARDS) {
+				throw new IllegalArgumentException("Cannot rank more than "
+						+ MAX_CARDS + " cards");
+			}
+
+			/*
+			 * A flush needs 3 cards of its suit on the board, which only one
+			 * suit can have.
+			 */
+			int shift = -1;
+			for (int s = 0; s < Constants.DECK_SIZE; s += VALUES) {
+				int values = (int) (mask >>> s) & SUIT_MASK;
+				if (Integer.bitCount(values) >= MIN_CARDS - Constants.HAND_SIZE) {
+					shift = s;
+				}
+			}
+			this.flushShift = shift;
+		}
+
+		@Override
+		public int rank(int c0, int c1) {
+			if (c0 == c1 || (mask & (1L << c0 | 1L << c1)) != 0) {
+				throw new IllegalArgumentException("Cannot rank a hand with a repeated card");
+			}
+			if (n < MIN_CARDS) {
+				return DefaultEvaluator.DISTINCT_VALUES;
+			}
+			if (flushShift >= 0) {
+				long cards = mask | 1L << c0 | 1L << c1;
+				int values = (int) (cards >>> flushShift) & SUIT_MASK;
+				if (Integer.bitCount(values) >= MIN_CARDS) {
+					return FLUSHES[values];
+				}
+			}
+			return RANKS[BASES[n] + hash(counts + COUNTS[c0] + COUNTS[c1], n)];
+		}
+
+	}
+
+}
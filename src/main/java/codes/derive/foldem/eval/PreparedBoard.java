@@ -0,0 +1,74 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import codes.derive.foldem.Card;
+import codes.derive.foldem.Hand;
+import codes.derive.foldem.board.Board;
+
+/**
+ * A {@link Board} prepared by an {@link Evaluator} so that many hands can be
+ * ranked on it without repeating the work that only depends on the board.
+ * Prepared boards are obtained using {@link Evaluator#prepare(Board)}.
+ *
+ * <p>
+ * Hands ranked on a prepared board must not contain any of the board's cards.
+ * Ranks are the same as those produced by the evaluator that prepared the
+ * board.
+ * </p>
+ */
+public interface PreparedBoard {
+
+	/**
+	 * Obtains the {@link Board} that was prepared.
+	 *
+	 * @return The board that was prepared.
+	 */
+	public Board board();
+
+	/**
+	 * Ranks the specified hand on the prepared board.
+	 *
+	 * @param hand
+	 *            The hand to rank.
+	 * @return The rank of the specified {@link Hand} on the prepared board.
+	 */
+	public int rank(Hand hand);
+
+	/**
+	 * Ranks the hand containing the cards with the specified indices on the
+	 * prepared board. See {@link Card#index()} for information on card
+	 * indices.
+	 *
+	 * @param c0
+	 *            The index of the first card in the hand.
+	 * @param c1
+	 *            The index of the second card in the hand.
+	 * @return The rank of the hand on the prepared board.
+	 */
+	public int rank(int c0, int c1);
+
+	/**
+	 * Obtains the value of the specified {@link Hand} on the prepared board.
+	 *
+	 * @param hand
+	 *            The hand to find the value of.
+	 * @return The value of the specified {@link Hand} on the prepared board.
+	 */
+	public HandValue value(Hand hand);
+
+}
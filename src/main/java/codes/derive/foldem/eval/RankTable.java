@@ -0,0 +1,242 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * The 5 card rank table used by {@link DefaultEvaluator}, mapping encoded hand
+ * values to their ranks.
+ *
+ * <p>
+ * The table is stored in a versioned binary format consisting of a header of
+ * four big-endian integers, {@link #MAGIC}, {@link #VERSION}, the number of
+ * ranks and a CRC-32 of the rank data, followed by the encoded hand value for
+ * each rank in rank order. Tables with an unexpected header are rejected, as
+ * are tables whose rank data does not match {@link #CHECKSUM}, so a stale or
+ * regenerated table is caught even if its own checksum is consistent.
+ * </p>
+ */
+final class RankTable {
+
+	/* The name of the rank table file and resource. */
+	static final String FILE_NAME = "rank_data";
+
+	/* Identifies a rank table, "RANK" in ASCII. */
+	static final int MAGIC = 0x52414E4B;
+
+	/* The current version of the rank table format. */
+	static final int VERSION = 1;
+
+	/* The CRC-32 of the rank data this version of the library was built with. */
+	static final int CHECKSUM = 0xD355EE4A;
+
+	/* The size of the rank table header in bytes. */
+	private static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+	/*
+	 * The size of the open addressed table, a power of two leaving more than
+	 * half of the table empty to keep probe sequences short.
+	 */
+	private static final int TABLE_SIZE = 1 << 14;
+
+	/* Multiplier and shift used to hash encoded hand values. */
+	private static final int HASH_MULTIPLIER = 0x9E3779B9;
+	private static final int HASH_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(TABLE_SIZE);
+
+	/* Contains encoded hand values, 0 marks an empty slot. */
+	private final int[] keys = new int[TABLE_SIZE];
+
+	/* Contains ranks at the same slots as their encoded hand values. */
+	private final short[] ranks = new short[TABLE_SIZE];
+
+	/* The time taken to load this table, in nanoseconds. */
+	private long loadTime;
+
+	/**
+	 * Constructs a new {@link RankTable} from the encoded hand values of each
+	 * rank.
+	 *
+	 * @param values
+	 *            The encoded hand values, in rank order.
+	 */
+	private RankTable(int[] values) {
+		for (short rank = 0; rank < values.length; rank++) {
+			int slot = slot(values[rank]);
+			while (keys[slot] != 0) {
+				slot = (slot + 1) & (TABLE_SIZE - 1);
+			}
+			keys[slot] = values[rank];
+			ranks[slot] = rank;
+		}
+	}
+
+	/**
+	 * Obtains the shared {@link RankTable}, loading it if this is the first
+	 * time it has been requested.
+	 *
+	 * @return The shared rank table.
+	 */
+	static RankTable get() {
+		return Holder.TABLE;
+	}
+
+	/**
+	 * Obtains the rank for the specified encoded hand value.
+	 *
+	 * @param key
+	 *            The encoded hand value.
+	 * @return The rank.
+	 */
+	int rank(int key) {
+
+		/*
+		 * Probe the table from our key's hashed slot until we find it.
+		 */
+		for (int slot = slot(key);; slot = (slot + 1) & (TABLE_SIZE - 1)) {
+			int k = keys[slot];
+			if (k == key) {
+				return ranks[slot];
+			}
+			if (k == 0) {
+				throw new IllegalArgumentException("Invalid 5 card hand");
+			}
+		}
+	}
+
+	/**
+	 * Obtains the time it took to load this table, in nanoseconds.
+	 *
+	 * @return The time it took to load this table, in nanoseconds.
+	 */
+	long loadTime() {
+		return loadTime;
+	}
+
+	/**
+	 * Loads the rank table, preferring a file in the working directory and
+	 * otherwise using the resource bundled with this library.
+	 *
+	 * @return The loaded rank table.
+	 */
+	private static RankTable load() {
+		long start = System.nanoTime();
+		RankTable table;
+
+		/*
+		 * Map the local file if there is one, this avoids copying it onto the
+		 * heap before we build our table.
+		 */
+		Path path = Paths.get(FILE_NAME);
+		if (Files.exists(path)) {
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				table = read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+			} catch (IOException e) {
+				throw new RuntimeException("Could not load rank_data from local file", e);
+			} catch (IllegalArgumentException e) {
+				throw new RuntimeException("Local rank_data file is invalid or stale, "
+						+ "remove it to use the bundled rank data", e);
+			}
+		} else {
+			try (InputStream in = RankTable.class.getResourceAsStream(FILE_NAME)) {
+				if (in == null) {
+					throw new IOException("Resource not found");
+				}
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				byte[] buffer = new byte[8192];
+				for (int read; (read = in.read(buffer)) != -1;) {
+					out.write(buffer, 0, read);
+				}
+				table = read(ByteBuffer.wrap(out.toByteArray()));
+			} catch (IOException | IllegalArgumentException e) {
+				throw new RuntimeException("Could not load rank_data resource, "
+						+ "make sure Foldem was built correctly", e);
+			}
+		}
+		table.loadTime = System.nanoTime() - start;
+		return table;
+	}
+
+	/**
+	 * Reads a rank table from the specified buffer, verifying its header and
+	 * checksum.
+	 *
+	 * @param buffer
+	 *            The buffer containing the table, starting at its header.
+	 * @return The rank table.
+	 */
+	static RankTable read(ByteBuffer buffer) {
+		if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+			throw new IllegalArgumentException("Not a rank table");
+		}
+		int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported rank table version " + version);
+		}
+		int count = buffer.getInt();
+		if (count != DefaultEvaluator.DISTINCT_VALUES || buffer.remaining() != count * Integer.BYTES + Integer.BYTES) {
+			throw new IllegalArgumentException("Rank table has the wrong size");
+		}
+		int checksum = buffer.getInt();
+
+		/*
+		 * Make sure the rank data is what was written, and that it is the
+		 * data we expect rather than that of some other table.
+		 */
+		CRC32 crc = new CRC32();
+		crc.update(buffer.duplicate());
+		if ((int) crc.getValue() != checksum) {
+			throw new IllegalArgumentException("Rank table checksum mismatch");
+		}
+		if (checksum != CHECKSUM) {
+			throw new IllegalArgumentException("Rank table does not contain the expected rank data");
+		}
+
+		int[] values = new int[count];
+		buffer.asIntBuffer().get(values);
+		return new RankTable(values);
+	}
+
+	/**
+	 * Finds the slot in the table to start probing at for the specified
+	 * encoded hand value.
+	 *
+	 * @param key
+	 *            The encoded hand value.
+	 * @return The slot to start probing at.
+	 */
+	private static int slot(int key) {
+		return (key * HASH_MULTIPLIER) >>> HASH_SHIFT;
+	}
+
+	/*
+	 * Holds the shared table, so that it is only loaded on first use.
+	 */
+	private static class Holder {
+		private static final RankTable TABLE = load();
+	}
+
+}
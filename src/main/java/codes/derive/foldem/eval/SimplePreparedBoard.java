@@ -0,0 +1,73 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import codes.derive.foldem.Card;
+import codes.derive.foldem.Hand;
+import codes.derive.foldem.board.Board;
+
+/**
+ * A {@link PreparedBoard} that only holds the board's card mask, ranking each
+ * hand with a full call to its evaluator. Used by evaluators that have no
+ * board specific work to share.
+ */
+final class SimplePreparedBoard implements PreparedBoard {
+
+	/* The evaluator that prepared the board. */
+	private final Evaluator evaluator;
+
+	/* The board that was prepared. */
+	private final Board board;
+
+	/* The card mask of the board. */
+	private final long mask;
+
+	/**
+	 * Constructs a new {@link SimplePreparedBoard}.
+	 *
+	 * @param evaluator
+	 *            The evaluator that prepared the board.
+	 * @param board
+	 *            The board that was prepared.
+	 */
+	SimplePreparedBoard(Evaluator evaluator, Board board) {
+		this.evaluator = evaluator;
+		this.board = board;
+		this.mask = Card.mask(board.cards());
+	}
+
+	@Override
+	public Board board() {
+		return board;
+	}
+
+	@Override
+	public int rank(Hand hand) {
+		return evaluator.rank(hand, board);
+	}
+
+	@Override
+	public int rank(int c0, int c1) {
+		return evaluator.rank(mask | 1L << c0 | 1L << c1);
+	}
+
+	@Override
+	public HandValue value(Hand hand) {
+		return evaluator.value(hand, board);
+	}
+
+}
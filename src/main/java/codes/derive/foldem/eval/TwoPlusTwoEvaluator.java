@@ -0,0 +1,294 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import codes.derive.foldem.Card;
+import codes.derive.foldem.Constants;
+import codes.derive.foldem.Hand;
+import codes.derive.foldem.board.Board;
+
+/**
+ * A hand evaluator that ranks hands by walking a state table one card at a
+ * time, taking a single table read per card.
+ *
+ * <p>
+ * The state table is generated by {@link TwoPlusTwoGenerator} and is memory
+ * mapped rather than read onto the heap, so it is shared through the page
+ * cache by every process using it. The table is stored as a header of four
+ * little-endian integers, {@link #MAGIC}, {@link #VERSION}, the checksum of
+ * the rank data its ranks were generated from and the number of entries,
+ * followed by the entries themselves. Tables generated from rank data other
+ * than the data {@link DefaultEvaluator} was built with are rejected, as
+ * their ranks would be wrong.
+ * </p>
+ *
+ * <p>
+ * If the table has not been generated this evaluator falls back to a
+ * {@link DefaultEvaluator}. Either way the ranks produced are identical to the
+ * ones produced by {@link DefaultEvaluator}.
+ * </p>
+ */
+public class TwoPlusTwoEvaluator extends AbstractEvaluator {
+
+	/** The default name of the state table file. **/
+	public static final String FILE_NAME = "state_data";
+
+	/* Identifies a state table, "STAT" in ASCII. */
+	static final int MAGIC = 0x53544154;
+
+	/* The current version of the state table format. */
+	static final int VERSION = 2;
+
+	/* The size of the state table header in bytes. */
+	static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+	/* The minimum and maximum number of cards that can be ranked. */
+	private static final int MIN_CARDS = 5;
+	private static final int MAX_CARDS = 7;
+
+	/* The state table, or null if we are using our fallback evaluator. */
+	private final IntBuffer table;
+
+	/* The evaluator used when there is no state table. */
+	private final Evaluator fallback = new DefaultEvaluator();
+
+	/**
+	 * Constructs a new {@link TwoPlusTwoEvaluator} using the state table in
+	 * the working directory, if there is one.
+	 */
+	public TwoPlusTwoEvaluator() {
+		this(Paths.get(FILE_NAME));
+	}
+
+	/**
+	 * Constructs a new {@link TwoPlusTwoEvaluator} using the state table at
+	 * the specified path, if there is one.
+	 *
+	 * @param path
+	 *            The path to the state table.
+	 */
+	public TwoPlusTwoEvaluator(Path path) {
+		this.table = Files.exists(path) ? map(path) : null;
+	}
+
+	/**
+	 * Obtains whether or not this evaluator is using a state table, rather
+	 * than falling back to a {@link DefaultEvaluator}.
+	 *
+	 * @return Whether or not a state table is being used.
+	 */
+	public boolean mapped() {
+		return table != null;
+	}
+
+	@Override
+	public int rank(long cards) {
+		if (table == null) {
+			return fallback.rank(cards);
+		}
+		int n = Long.bitCount(cards);
+		if (n < MIN_CARDS) {
+			return DefaultEvaluator.DISTINCT_VALUES;
+		}
+		if (n > MAX_CARDS) {
+			throw new IllegalArgumentException("Cannot rank more than "
+					+ MAX_CARDS + " cards");
+		}
+
+		/*
+		 * Walk the table from the empty state, the order cards are added in
+		 * does not matter. The 7th card leads straight to a rank, otherwise
+		 * the rank is held at the start of the state we end up in.
+		 */
+		int p = TwoPlusTwoGenerator.STATE_SIZE;
+		for (long m = cards; m != 0; m &= m - 1) {
+			p = table.get(p + Long.numberOfTrailingZeros(m) + 1);
+		}
+		return n == MAX_CARDS ? p : table.get(p);
+	}
+
+	@Override
+	public int rank(int[] cards, int len) {
+		long mask = 0;
+		for (int i = 0; i < len; i++) {
+			mask |= 1L << cards[i];
+		}
+
+		/*
+		 * The state table has no transitions for repeated cards, so leave
+		 * those to our fallback evaluator.
+		 */
+		if (table == null || Long.bitCount(mask) != len) {
+			return fallback.rank(cards, len);
+		}
+		return rank(mask);
+	}
+
+	@Override
+	public void rankAll(Hand hand, Board[] boards, int[] out) {
+		if (table == null) {
+			fallback.rankAll(hand, boards, out);
+			return;
+		}
+		if (out.length < boards.length) {
+			throw new IllegalArgumentException("Output array is too small");
+		}
+
+		/*
+		 * Walk to the state for our hand once, then walk each board from
+		 * there.
+		 */
+		long mask = Card.mask(hand.cards());
+		int state = TwoPlusTwoGenerator.STATE_SIZE;
+		for (long m = mask; m != 0; m &= m - 1) {
+			state = table.get(state + Long.numberOfTrailingZeros(m) + 1);
+		}
+		for (int i = 0; i < boards.length; i++) {
+			Board board = boards[i];
+			int n = Long.bitCount(mask) + board.cards().size();
+			if (n < MIN_CARDS || n > MAX_CARDS
+					|| Long.bitCount(mask | Card.mask(board.cards())) != n) {
+				out[i] = rank(hand, board);
+				continue;
+			}
+			int p = state;
+			for (Card card : board.cards()) {
+				p = table.get(p + card.index() + 1);
+			}
+			out[i] = n == MAX_CARDS ? p : table.get(p);
+		}
+	}
+
+	@Override
+	public PreparedBoard prepare(Board board) {
+		/*
+		 * The state table has no transitions for repeated cards, so leave
+		 * boards holding them to our fallback evaluator.
+		 */
+		if (table == null || Long.bitCount(Card.mask(board.cards())) != board.cards().size()) {
+			return fallback.prepare(board);
+		}
+		return new Prepared(board);
+	}
+
+	/**
+	 * Maps the state table at the specified path, verifying its header.
+	 *
+	 * @param path
+	 *            The path to the state table.
+	 * @return The state table entries.
+	 */
+	private static IntBuffer map(Path path) {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch (IOException e) {
+			throw new RuntimeException("Could not map state table " + path, e);
+		}
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+			throw new IllegalArgumentException(path + " is not a state table");
+		}
+		int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported state table version "
+					+ version + ", regenerate it using TwoPlusTwoGenerator");
+		}
+		if (buffer.getInt() != RankTable.CHECKSUM) {
+			throw new IllegalArgumentException("State table was generated from other rank data"
+					+ ", regenerate it using TwoPlusTwoGenerator");
+		}
+		int count = buffer.getInt();
+		if (buffer.remaining() != (long) count * Integer.BYTES) {
+			throw new IllegalArgumentException("State table has the wrong size");
+		}
+		return buffer.asIntBuffer();
+	}
+
+	/*
+	 * A board prepared by this evaluator, holding the state reached by adding
+	 * the board's cards so that each hand only takes its own reads.
+	 */
+	private final class Prepared extends AbstractPreparedBoard {
+
+		/* The position of the state reached by adding the board's cards. */
+		private final int state;
+
+		/* The number of cards in a hand ranked on the board. */
+		private final int n;
+
+		/* The card mask of the board. */
+		private final long mask;
+
+		/**
+		 * Prepares the specified board.
+		 *
+		 * @param board
+		 *            The board to prepare.
+		 */
+		private Prepared(Board board) {
+			super(board);
+			int p = TwoPlusTwoGenerator.STATE_SIZE;
+			for (Card card : board.cards()) {
+				p = table.get(p + card.index() + 1);
+			}
+			this.state = p;
+			this.n = board.cards().size() + Constants.HAND_SIZE;
+			this.mask = Card.mask(board.cards());
+			if (n > MAX_CARDS) {
+				throw new IllegalArgumentException("Cannot rank more than "
+						+ MAX_CARDS + " cards");
+			}
+		}
+
+		@Override
+		public int rank(int c0, int c1) {
+			if (n < MIN_CARDS) {
+				return DefaultEvaluator.DISTINCT_VALUES;
+			}
+
+			/*
+			 * The state table has no transitions for repeated cards, so leave
+			 * hands that repeat a card to our fallback evaluator.
+			 */
+			if (c0 == c1 || (mask & (1L << c0 | 1L << c1)) != 0) {
+				int[] cards = new int[n];
+				int len = 0;
+				for (Card card : board().cards()) {
+					cards[len++] = card.index();
+				}
+				cards[len++] = c0;
+				cards[len++] = c1;
+				return fallback.rank(cards, len);
+			}
+			int p = table.get(table.get(state + c0 + 1) + c1 + 1);
+			return n == MAX_CARDS ? p : table.get(p);
+		}
+
+	}
+
+}
@@ -0,0 +1,347 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import codes.derive.foldem.Card;
+import codes.derive.foldem.Constants;
+
+/**
+ * Generates the state table used by {@link TwoPlusTwoEvaluator}.
+ *
+ * <p>
+ * Each state in the table represents a set of up to 6 cards, with the suits of
+ * cards that can no longer contribute to a flush discarded so that equivalent
+ * sets share a state. A state holds 53 entries, the first being the rank of
+ * its cards if it holds 5 or 6 of them and the rest being the position of the
+ * state reached by adding each card. Transitions from 6 card states hold the
+ * rank of the resulting 7 card hand instead.
+ * </p>
+ *
+ * <p>
+ * The table is around 130MB and takes a while to generate, it is intended to
+ * be generated once using {@link #main(String...)} and shared.
+ * </p>
+ */
+public class TwoPlusTwoGenerator {
+
+	/* The number of entries in each state, a rank followed by 52 transitions. */
+	static final int STATE_SIZE = Constants.DECK_SIZE + 1;
+
+	/* The number of cards a hand is ranked with. */
+	private static final int MAX_CARDS = 7;
+
+	/* The number of bits used to hold each card in a state ID. */
+	private static final int CARD_BITS = 8;
+
+	/* The number of entries to buffer before writing them out. */
+	private static final int BUFFER_ENTRIES = 1 << 16;
+
+	/* The evaluator used to rank hands. */
+	private final Evaluator evaluator;
+
+	/* Contains the ID of each state, in the order they were discovered. */
+	private long[] ids = new long[1 << 20];
+
+	/* Contains the position of each discovered state mapped to its ID. */
+	private final Map<Long, Integer> states = new HashMap<>();
+
+	/* The number of states discovered so far. */
+	private int count = 0;
+
+	/* Scratch space for the cards of the state being worked on. */
+	private final int[] work = new int[MAX_CARDS + 1];
+
+	/* Scratch space for the card indices of a hand being ranked. */
+	private final int[] cards = new int[MAX_CARDS];
+
+	/**
+	 * Constructs a new {@link TwoPlusTwoGenerator} that ranks hands with the
+	 * specified {@link Evaluator}.
+	 *
+	 * @param evaluator
+	 *            The evaluator to use, must produce the same ranks as
+	 *            {@link DefaultEvaluator}.
+	 */
+	public TwoPlusTwoGenerator(Evaluator evaluator) {
+		this.evaluator = evaluator;
+	}
+
+	/**
+	 * Generates the state table using {@link DefaultEvaluator} ranks and
+	 * writes it to the path specified by the first argument, or
+	 * {@link TwoPlusTwoEvaluator#FILE_NAME} if there are no arguments.
+	 *
+	 * @param args
+	 *            The program arguments.
+	 * @throws IOException
+	 *             If the table could not be written.
+	 */
+	public static void main(String... args) throws IOException {
+		Path path = Paths.get(args.length > 0 ? args[0] : TwoPlusTwoEvaluator.FILE_NAME);
+		long start = System.nanoTime();
+		int states = new TwoPlusTwoGenerator(new DefaultEvaluator()).generate(path);
+		System.out.println("Wrote " + states + " states to " + path + " in "
+				+ (System.nanoTime() - start) / 1000000 + "ms");
+	}
+
+	/**
+	 * Generates the state table and writes it to the specified path.
+	 *
+	 * @param path
+	 *            The path to write the table to.
+	 * @return The number of states in the table.
+	 * @throws IOException
+	 *             If the table could not be written.
+	 */
+	public int generate(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_ENTRIES * Integer.BYTES)
+					.order(ByteOrder.LITTLE_ENDIAN);
+
+			/*
+			 * Leave room for the header, which we write once we know how many
+			 * entries there are, followed by the unused entries before the
+			 * first state.
+			 */
+			channel.position(TwoPlusTwoEvaluator.HEADER_SIZE);
+			for (int i = 0; i < STATE_SIZE; i++) {
+				buffer.putInt(0);
+			}
+
+			/*
+			 * Starting from the empty state, find the transitions for each
+			 * state in the order they were discovered. A state's entries are
+			 * complete once it has been visited, so they can be written as we
+			 * go.
+			 */
+			state(0L);
+			for (int s = 0; s < count; s++) {
+				long id = ids[s];
+				int n = size(id);
+				buffer.putInt(n >= 5 ? rank(id) : 0);
+				for (int card = 0; card < Constants.DECK_SIZE; card++) {
+					long next = add(id, card);
+					if (next == -1) {
+						buffer.putInt(0);
+					} else if (n + 1 == MAX_CARDS) {
+						buffer.putInt(rank(next));
+					} else {
+						buffer.putInt(STATE_SIZE + STATE_SIZE * state(next));
+					}
+				}
+				if (buffer.remaining() < STATE_SIZE * Integer.BYTES) {
+					write(channel, buffer);
+				}
+			}
+			write(channel, buffer);
+
+			/*
+			 * Finally write our header.
+			 */
+			buffer.putInt(TwoPlusTwoEvaluator.MAGIC);
+			buffer.putInt(TwoPlusTwoEvaluator.VERSION);
+			buffer.putInt(RankTable.CHECKSUM);
+			buffer.putInt(STATE_SIZE + STATE_SIZE * count);
+			buffer.flip();
+			channel.write(buffer, 0);
+		}
+		return count;
+	}
+
+	/**
+	 * Finds the position of the state with the specified ID, adding it to the
+	 * list of states to visit if it has not been discovered yet.
+	 *
+	 * @param id
+	 *            The state ID.
+	 * @return The position of the state.
+	 */
+	private int state(long id) {
+		Integer position = states.get(id);
+		if (position == null) {
+			if (count == ids.length) {
+				ids = Arrays.copyOf(ids, count * 2);
+			}
+			ids[count] = id;
+			position = count++;
+			states.put(id, position);
+		}
+		return position;
+	}
+
+	/**
+	 * Finds the ID of the state reached by adding the specified card to the
+	 * state with the specified ID.
+	 *
+	 * <p>
+	 * An ID holds one byte per card in descending order, with the card value
+	 * plus one in the upper four bits and the suit ordinal plus one in the
+	 * lower four bits. Suits that can no longer make a flush are set to zero.
+	 * </p>
+	 *
+	 * <p>
+	 * A repeated card is only recognised while the card it repeats still has
+	 * its suit, once the suit has been set to zero the state no longer knows
+	 * which card it was. {@link TwoPlusTwoEvaluator} never walks the table
+	 * with repeated cards, so transitions from such states are never used.
+	 * </p>
+	 *
+	 * @param id
+	 *            The ID of the state.
+	 * @param card
+	 *            The index of the card to add.
+	 * @return The ID of the new state, or -1 if the card cannot be added.
+	 */
+	private long add(long id, int card) {
+		int[] suits = new int[5];
+		int[] values = new int[Card.LABEL.length + 1];
+
+		/*
+		 * Unpack the state's cards and add our new one.
+		 */
+		int value = Card.value(card) + 1;
+		int suit = Card.suit(card).ordinal() + 1;
+		int n = 0;
+		work[n++] = (value << 4) | suit;
+		for (long m = id; m != 0; m >>>= CARD_BITS) {
+			work[n++] = (int) m & 0xFF;
+		}
+
+		/*
+		 * Check our new card against the state's cards on both value and
+		 * suit before any suits are discarded, so the card can't be added
+		 * twice.
+		 */
+		for (int i = 1; i < n; i++) {
+			if (work[i] >> 4 == value && (work[i] & 0xF) == suit) {
+				return -1;
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			suits[work[i] & 0xF]++;
+			if (++values[work[i] >> 4] > 4) {
+				return -1;
+			}
+		}
+
+		/*
+		 * Discard the suits of cards that do not have enough cards of their
+		 * suit left to come to make a flush.
+		 */
+		int needed = Constants.BOARD_SIZE - (MAX_CARDS - n);
+		if (needed > 1) {
+			for (int i = 0; i < n; i++) {
+				if (suits[work[i] & 0xF] < needed) {
+					work[i] &= 0xF0;
+				}
+			}
+		}
+
+		/*
+		 * Sort our cards so that equivalent sets have the same ID.
+		 */
+		Arrays.sort(work, 0, n);
+		long next = 0L;
+		for (int i = 0; i < n; i++) {
+			next |= (long) work[i] << (CARD_BITS * (n - i - 1));
+		}
+		return next;
+	}
+
+	/**
+	 * Ranks the cards in the state with the specified ID, assigning suits to
+	 * cards whose suit was discarded such that they cannot make a flush.
+	 *
+	 * @param id
+	 *            The ID of the state.
+	 * @return The rank of the state's cards.
+	 */
+	private int rank(long id) {
+
+		/*
+		 * Find the suit that was kept, if any.
+		 */
+		int kept = -1;
+		for (long m = id; m != 0; m >>>= CARD_BITS) {
+			if ((m & 0xF) != 0) {
+				kept = (int) (m & 0xF) - 1;
+			}
+		}
+
+		/*
+		 * Cycle the discarded suits through the other suits, cards are sorted
+		 * by value so cards of the same value receive different suits.
+		 */
+		int n = 0, suit = 0;
+		for (long m = id; m != 0; m >>>= CARD_BITS) {
+			int c = (int) m & 0xFF;
+			int value = (c >> 4) - 1;
+			int s = (c & 0xF) - 1;
+			if (s < 0) {
+				if (suit == kept) {
+					suit = (suit + 1) % 4;
+				}
+				s = suit;
+				suit = (suit + 1) % 4;
+			}
+			cards[n++] = s * Card.LABEL.length + value;
+		}
+		return evaluator.rank(cards, n);
+	}
+
+	/**
+	 * Obtains the number of cards in the state with the specified ID.
+	 *
+	 * @param id
+	 *            The ID of the state.
+	 * @return The number of cards in the state.
+	 */
+	private static int size(long id) {
+		return (Long.SIZE - Long.numberOfLeadingZeros(id) + CARD_BITS - 1) / CARD_BITS;
+	}
+
+	/**
+	 * Writes out and clears the specified buffer.
+	 *
+	 * @param channel
+	 *            The channel to write to.
+	 * @param buffer
+	 *            The buffer to write.
+	 * @throws IOException
+	 *             If the buffer could not be written.
+	 */
+	private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
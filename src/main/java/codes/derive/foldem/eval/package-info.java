@@ -18,6 +18,10 @@
  * Defines classes for evaluating Hold'em hands.
  * 
  * The {@link Evaluator} interface is the crux of this package. You can find the main evaluator shipped with this library {@link DefaultEvaluator}.
+ * A faster evaluator producing identical ranks is available as {@link PerfectHashEvaluator}.
+ * {@link TwoPlusTwoEvaluator} walks a memory mapped state table generated by {@link TwoPlusTwoGenerator}.
+ * Many hands can be ranked on the same board using a {@link PreparedBoard}, and {@link BatchEvaluator} ranks batches of 7 card hands in lanes.
+ * {@link CachingEvaluator} can be used to remember the ranks produced by any evaluator.
  * 
  */
 package codes.derive.foldem.eval;
\ No newline at end of file
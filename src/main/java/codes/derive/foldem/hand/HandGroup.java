@@ -0,0 +1,330 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.hand;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import codes.derive.foldem.Card;
+import codes.derive.foldem.CardParser;
+import codes.derive.foldem.Constants;
+import codes.derive.foldem.Hand;
+import codes.derive.foldem.ShorthandException;
+import codes.derive.foldem.Suit;
+
+/**
+ * Represents one of the 169 starting hand groups in Texas Hold 'em, such as
+ * "AA", "AKs" or "AKo", containing every hand with the same card values and
+ * the same suitedness.
+ * 
+ * <p>
+ * There is a single shared instance of each group. Groups are indexed as the
+ * cells of a 13 by 13 matrix with rows and columns ordered from aces down to
+ * deuces, so the index of a group is <code>row * 13 + column</code>. Pairs
+ * are on the diagonal, suited groups are above it and off-suit groups are
+ * below it.
+ * </p>
+ */
+public class HandGroup {
+
+	/** The number of starting hand groups. **/
+	public static final int COUNT = 169;
+
+	/** The number of rows and columns in the matrix of groups. **/
+	public static final int SIZE = 13;
+
+	/* Card values ordered by strength, highest first. */
+	private static final int[] VALUES = { Card.ACE, Card.KING, Card.QUEEN, Card.JACK, Card.TEN, Card.NINE,
+			Card.EIGHT, Card.SEVEN, Card.SIX, Card.FIVE, Card.FOUR, Card.TREY, Card.DEUCE };
+
+	/* Contains the shared instance of each group, indexed by group index. */
+	private static final HandGroup[] GROUPS = new HandGroup[COUNT];
+
+	/* An unmodifiable view of every group, ordered by group index. */
+	private static final List<HandGroup> ALL = Collections.unmodifiableList(Arrays.asList(GROUPS));
+
+	/* Maps hand indices to the index of the group containing the hand. */
+	private static final short[] GROUP_OF_HAND = new short[Constants.HAND_COUNT];
+
+	/* Every group ordered by all-in equity against a random hand, strongest first. */
+	private static final String[] RANKING = {
+			"AA", "KK", "QQ", "JJ", "TT", "99", "88", "AKs", "AQs", "77", "AJs", "AKo", "ATs",
+			"AQo", "AJo", "KQs", "66", "A9s", "ATo", "KJs", "A8s", "KTs", "KQo", "A7s", "A9o", "KJo",
+			"55", "QJs", "K9s", "A5s", "A8o", "A6s", "KTo", "QTs", "A4s", "A7o", "K8s", "A3s", "QJo",
+			"K9o", "A5o", "A6o", "Q9s", "JTs", "K7s", "A2s", "QTo", "44", "A4o", "K6s", "K8o", "Q8s",
+			"A3o", "K5s", "J9s", "Q9o", "K7o", "JTo", "A2o", "K4s", "Q7s", "K6o", "K3s", "J8s", "T9s",
+			"Q6s", "33", "Q8o", "K5o", "K2s", "J9o", "Q5s", "J7s", "K4o", "T8s", "Q4s", "Q7o", "T9o",
+			"J8o", "K3o", "Q3s", "Q6o", "98s", "T7s", "K2o", "J6s", "22", "Q2s", "Q5o", "J5s", "T8o",
+			"J7o", "97s", "Q4o", "J4s", "T6s", "Q3o", "J3s", "98o", "87s", "T7o", "J6o", "96s", "J2s",
+			"Q2o", "T5s", "J5o", "T4s", "97o", "86s", "J4o", "T6o", "95s", "T3s", "76s", "J3o", "87o",
+			"T2s", "85s", "96o", "J2o", "T5o", "94s", "75s", "T4o", "93s", "86o", "65s", "95o", "84s",
+			"T3o", "92s", "76o", "74s", "T2o", "54s", "85o", "64s", "83s", "94o", "75o", "82s", "93o",
+			"73s", "65o", "53s", "63s", "84o", "92o", "43s", "74o", "72s", "54o", "64o", "52s", "62s",
+			"83o", "82o", "42s", "73o", "53o", "63o", "32s", "43o", "72o", "52o", "62o", "42o", "32o" };
+
+	/* An unmodifiable view of every group, ordered by strength. */
+	private static final List<HandGroup> RANKED;
+
+	static {
+		for (int i = 0; i < GROUPS.length; i++) {
+			GROUPS[i] = new HandGroup(i);
+			for (Hand hand : GROUPS[i].hands) {
+				GROUP_OF_HAND[hand.index()] = (short) i;
+			}
+		}
+		HandGroup[] ranked = new HandGroup[COUNT];
+		for (int i = 0; i < RANKING.length; i++) {
+			ranked[i] = of(RANKING[i]);
+		}
+		RANKED = Collections.unmodifiableList(Arrays.asList(ranked));
+	}
+
+	/* The index of this group. */
+	private final int index;
+
+	/* The values of the higher and lower cards of this group's hands. */
+	private final int high, low;
+
+	/* Whether the hands in this group are suited. */
+	private final boolean suited;
+
+	/* The shorthand for this group. */
+	private final String shorthand;
+
+	/* The hands in this group. */
+	private final List<Hand> hands;
+
+	/**
+	 * Constructs the {@link HandGroup} with the specified index.
+	 * 
+	 * @param index
+	 *            The group index.
+	 */
+	private HandGroup(int index) {
+		int row = index / SIZE, column = index % SIZE;
+		this.index = index;
+		this.high = VALUES[Math.min(row, column)];
+		this.low = VALUES[Math.max(row, column)];
+		this.suited = column > row;
+
+		/*
+		 * Build our shorthand, pairs don't need a modifier.
+		 */
+		StringBuilder bldr = new StringBuilder().append(Card.LABEL[high]).append(Card.LABEL[low]);
+		if (row != column) {
+			bldr.append(suited ? 's' : 'o');
+		}
+		this.shorthand = bldr.toString();
+
+		/*
+		 * Collect the hands in this group.
+		 */
+		List<Hand> hands = new ArrayList<>();
+		for (Suit a : Suit.values()) {
+			for (Suit b : Suit.values()) {
+				if (suited ? a != b : a == b || (row == column && a.ordinal() > b.ordinal())) {
+					continue;
+				}
+				hands.add(Hand.of(Card.of(high, a), Card.of(low, b)));
+			}
+		}
+		this.hands = Collections.unmodifiableList(hands);
+	}
+
+	/**
+	 * Obtains the {@link HandGroup} with the specified index.
+	 * 
+	 * @param index
+	 *            The group index.
+	 * @return The group with the specified index.
+	 */
+	public static HandGroup of(int index) {
+		if (index < 0 || index >= COUNT) {
+			throw new IllegalArgumentException("Invalid hand group index " + index);
+		}
+		return GROUPS[index];
+	}
+
+	/**
+	 * Obtains the {@link HandGroup} containing the specified hand.
+	 * 
+	 * @param hand
+	 *            The hand.
+	 * @return The group containing the hand.
+	 */
+	public static HandGroup of(Hand hand) {
+		return GROUPS[GROUP_OF_HAND[hand.index()]];
+	}
+
+	/**
+	 * Obtains the {@link HandGroup} described by the specified shorthand,
+	 * which is two card values followed by "s" for suited groups or "o" for
+	 * off-suit groups, such as "AKs". Pairs have no modifier, such as "AA".
+	 * The card values can be given in either order.
+	 * 
+	 * @param shorthand
+	 *            The shorthand.
+	 * @return The group described by the shorthand.
+	 */
+	public static HandGroup of(CharSequence shorthand) {
+		int a = CardParser.value(shorthand, 0);
+		int b = CardParser.value(shorthand, 1);
+		if (a == b) {
+			if (shorthand.length() != 2) {
+				throw new ShorthandException("Pairs cannot be suited or off-suit", 2);
+			}
+			return of(a, b, false);
+		}
+		if (shorthand.length() != 3) {
+			throw new ShorthandException("Expected 's' or 'o'", Math.min(shorthand.length(), 3));
+		}
+		char modifier = shorthand.charAt(2);
+		if (modifier != 's' && modifier != 'o') {
+			throw new ShorthandException("Expected 's' or 'o'", 2);
+		}
+		return of(a, b, modifier == 's');
+	}
+
+	/**
+	 * Obtains the {@link HandGroup} containing hands with the specified card
+	 * values.
+	 * 
+	 * @param a
+	 *            The value of one card.
+	 * @param b
+	 *            The value of the other card.
+	 * @param suited
+	 *            Whether the hands are suited, ignored for pairs.
+	 * @return The group containing the hands.
+	 */
+	public static HandGroup of(int a, int b, boolean suited) {
+		int ra = strength(a), rb = strength(b);
+		int high = Math.min(ra, rb), low = Math.max(ra, rb);
+		return GROUPS[suited ? high * SIZE + low : low * SIZE + high];
+	}
+
+	/**
+	 * Obtains an unmodifiable view of every group, ordered by group index.
+	 * 
+	 * @return An unmodifiable view of every group.
+	 */
+	public static List<HandGroup> all() {
+		return ALL;
+	}
+
+	/**
+	 * Obtains an unmodifiable view of every group ordered by strength,
+	 * strongest first. Groups are ranked by their all-in equity against a
+	 * random hand before the flop, from "AA" down to "32o".
+	 * 
+	 * @return An unmodifiable view of every group, ordered by strength.
+	 */
+	public static List<HandGroup> ranked() {
+		return RANKED;
+	}
+
+	/**
+	 * Obtains the index of this group.
+	 * 
+	 * @return The index of this group.
+	 */
+	public int index() {
+		return index;
+	}
+
+	/**
+	 * Obtains an unmodifiable view of the hands within this group.
+	 * 
+	 * @return The hands within this group.
+	 */
+	public List<Hand> hands() {
+		return hands;
+	}
+
+	/**
+	 * Obtains whether or not the specified hand is in this group.
+	 * 
+	 * @param hand
+	 *            The hand.
+	 * @return <code>true</code> if the hand is in this group, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean contains(Hand hand) {
+		return GROUP_OF_HAND[hand.index()] == index;
+	}
+
+	/**
+	 * Obtains the value of the higher card of this group's hands.
+	 * 
+	 * @return The value of the higher card.
+	 */
+	public int getHighValue() {
+		return high;
+	}
+
+	/**
+	 * Obtains the value of the lower card of this group's hands.
+	 * 
+	 * @return The value of the lower card.
+	 */
+	public int getLowValue() {
+		return low;
+	}
+
+	/**
+	 * Obtains whether or not this group's hands are pairs.
+	 * 
+	 * @return <code>true</code> if this is a pair group, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean pair() {
+		return high == low;
+	}
+
+	/**
+	 * Obtains whether or not this group's hands are suited.
+	 * 
+	 * @return <code>true</code> if this is a suited group, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean suited() {
+		return suited;
+	}
+
+	/**
+	 * Obtains the position of the specified card value in the rows and columns
+	 * of the matrix of groups.
+	 * 
+	 * @param value
+	 *            The card value.
+	 * @return The position of the card value, 0 for aces.
+	 */
+	private static int strength(int value) {
+		if (value < Card.ACE || value > Card.KING) {
+			throw new IllegalArgumentException("Invalid card value " + value);
+		}
+		return value == Card.ACE ? 0 : SIZE - value;
+	}
+
+	@Override
+	public String toString() {
+		return shorthand;
+	}
+
+}
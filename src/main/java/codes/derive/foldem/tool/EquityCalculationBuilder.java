@@ -20,16 +20,22 @@ import static codes.derive.foldem.Poker.*;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import codes.derive.foldem.Card;
-import codes.derive.foldem.Deck;
+import codes.derive.foldem.CardSet;
 import codes.derive.foldem.Hand;
 import codes.derive.foldem.Range;
 import codes.derive.foldem.board.Board;
@@ -37,10 +43,19 @@ import codes.derive.foldem.board.Boards;
 import codes.derive.foldem.board.Street;
 import codes.derive.foldem.eval.DefaultEvaluator;
 import codes.derive.foldem.eval.Evaluator;
+import codes.derive.foldem.eval.PreparedBoard;
 
 /**
  * A type that can be used to calculate equity for hands and ranges using Monte
  * Carlo simulations.
+ * 
+ * <p>
+ * Simulations are run in fixed size chunks, each using its own random context
+ * seeded from a hash of the input. Chunks can be run on several threads at
+ * once, see {@link #useParallelism(int)} and
+ * {@link #useExecutor(ExecutorService)}, and the results for the same input
+ * are identical however many threads are used.
+ * </p>
  */
 public class EquityCalculationBuilder {
 
@@ -50,8 +65,17 @@ public class EquityCalculationBuilder {
 	/* The default evaluator to use for simulations. */
 	public static final Evaluator DEFAULT_EVALUATOR = new DefaultEvaluator();
 
-	/* A list containing cards to remove from the deck during calculations. */
-	private final List<Card> dead = new ArrayList<>();
+	/* The number of times to try dealing hands from ranges before giving up. */
+	private static final int MAX_DEAL_ATTEMPTS = 1000;
+
+	/* The number of samples in each chunk, changing this changes every result. */
+	private static final int CHUNK_SIZE = 256;
+
+	/* The positions of a hand's win, loss and split counts, and the number of counts per hand. */
+	private static final int WIN = 0, LOSE = 1, SPLIT = 2, OUTCOMES = 3;
+
+	/* A set containing cards to remove from the deck during calculations. */
+	private CardSet dead = CardSet.EMPTY;
 
 	/* The base board to use during calculations. */
 	private Board board = Boards.board();
@@ -62,6 +86,12 @@ public class EquityCalculationBuilder {
 	/* The evaluator to use for simulations. */
 	private Evaluator evaluator = DEFAULT_EVALUATOR;
 
+	/* The number of tasks to split simulations across, 0 if not set. */
+	private int parallelism = 0;
+
+	/* The executor to run simulations on, or null to use the common pool. */
+	private ExecutorService executor = null;
+
 	/**
 	 * Performs an equity calculation for the specified hands and returns a map
 	 * containing each hand mapped to its calculated equity.
@@ -80,23 +110,18 @@ public class EquityCalculationBuilder {
 		Map<Hand, Equity> equities = createBaseEquityMap(hands);
 
 		/*
-		 * We should create a Random context for deck shuffling that uses a hash
-		 * of our input for seeding. This allows for output continuity between
-		 * calculations.
+		 * Run our simulations using a hash of our input for seeding. This
+		 * allows for output continuity between calculations.
 		 */
-		Random random = new Random(Arrays.hashCode(hands));
+		long[] counts = run(Arrays.hashCode(hands), hands, null);
 
 		/*
-		 * Run our simulations.
+		 * Now just apply our counts to our equities, converting them to the
+		 * correct decimal format, and we're done.
 		 */
-		for (int i = 0; i < sampleSize; i++) {
-			simulate(equities, random);
+		for (int i = 0; i < hands.length; i++) {
+			equities.get(hands[i]).add(counts, i);
 		}
-
-		/*
-		 * Now just call complete() on all of our generated equities to convert
-		 * them to the correct decimal format, and we're done.
-		 */
 		for (Equity equity : equities.values()) {
 			equity.complete();
 		}
@@ -107,6 +132,12 @@ public class EquityCalculationBuilder {
 	 * Performs an equity calculation for the specified ranges and returns a map
 	 * containing each range mapped to its calculated equity.
 	 * 
+	 * <p>
+	 * The ranges are frozen before use, see {@link Range#freeze()}, so the
+	 * returned map is keyed by frozen copies that are equal to the specified
+	 * ranges.
+	 * </p>
+	 * 
 	 * @param ranges
 	 *            The ranges to calculate equity for.
 	 * @return A map containing the specified ranges mapped to their calculated
@@ -114,6 +145,15 @@ public class EquityCalculationBuilder {
 	 */
 	public Map<Range, Equity> calculate(Range... ranges) {
 
+		/*
+		 * Freeze our ranges so hashing them, for seeding and as map keys,
+		 * takes constant time.
+		 */
+		ranges = ranges.clone();
+		for (int i = 0; i < ranges.length; i++) {
+			ranges[i] = ranges[i].freeze();
+		}
+
 		/*
 		 * It may be possible that two or more ranges can have a card in common
 		 * in all of their hands or with the board, making it impossible to deal
@@ -147,7 +187,7 @@ public class EquityCalculationBuilder {
 				 */
 				cards: for (Card card : cards()) {
 					for (Hand hand : combined) {
-						if (!hand.cards().contains(card)) {
+						if (!hand.cardSet().contains(card)) {
 							usable = true;
 							break cards;
 						}
@@ -165,7 +205,7 @@ public class EquityCalculationBuilder {
 			 */
 			boolean usable = false;
 			for (Hand hand : a.all()) {
-				if (Collections.disjoint(hand.cards(), board.cards())) {
+				if (!hand.cardSet().intersects(board.cardSet())) {
 					usable = true;
 					break;
 				}
@@ -191,80 +231,18 @@ public class EquityCalculationBuilder {
 		Map<Range, Equity> equities = createBaseEquityMap(ranges);
 
 		/*
-		 * Create a Random context for deck shuffling that uses a hash of our
-		 * input for seeding. This allows for output continuity between
-		 * calculations.
+		 * Run our simulations using a hash of our input for seeding. This
+		 * allows for output continuity between calculations.
 		 */
-		Random random = new Random(Arrays.hashCode(ranges));
+		long[] counts = run(Arrays.hashCode(ranges), null, ranges);
 
 		/*
-		 * Run our simulations.
+		 * Now just apply our counts to our equities, converting them to the
+		 * correct decimal format, and we're done.
 		 */
-		for (int i = 0; i < sampleSize; i++) {
-
-			/*
-			 * First we should sample our hands from our ranges, making sure
-			 * there are no collisions. We'll map them to their respective
-			 * equities.
-			 */
-			Map<Hand, Equity> hands = new HashMap<>();
-			while (hands.size() < equities.size()) {
-				for (Range range : ranges) {
-					Hand sampled = range.sample(random);
-					
-					/*
-					 * If there are any collisions we cannot use the hand.
-					 */
-					boolean collision = false;
-					for (Hand hand : hands.keySet()) {
-						
-						/*
-						 * Check for collisions with dead cards.
-						 */
-						for (Card card : dead) {
-							if (hand.cards().contains(card)) {
-								collision = true;
-								break;
-							}
-						}
-						
-						/*
-						 * Check for collisions with other hands.
-						 */
-						if (!Collections.disjoint(hand.cards(), sampled.cards())) {
-							collision = true;
-							break;
-						}
-						
-						/*
-						 * Check for a collision with the board.
-						 */
-						if (!Collections.disjoint(board.cards(), hand.cards())) {
-							collision = true;
-							break;
-						}
-					}
-					
-					/*
-					 * If there was no collision we can our sampled hand to the map.
-					 */
-					if (!collision) {
-						hands.put(sampled, equities.get(range));
-					}
-				}
-			}
-			
-			
-			/*
-			 * Run the simulation.
-			 */
-			simulate(hands, random);
+		for (int i = 0; i < ranges.length; i++) {
+			equities.get(ranges[i]).add(counts, i);
 		}
-		
-		/*
-		 * Now just call complete() on all of our generated equities to convert
-		 * them to the correct decimal format, and we're done.
-		 */
 		for (Equity equity : equities.values()) {
 			equity.complete();
 		}
@@ -299,6 +277,45 @@ public class EquityCalculationBuilder {
 		return this;
 	}
 
+	/**
+	 * Sets the number of tasks to split simulations across, including the
+	 * calling thread. By default simulations are run on the calling thread
+	 * alone. Unless an executor has been set using
+	 * {@link EquityCalculationBuilder#useExecutor(ExecutorService)} the other
+	 * tasks are run on the common {@link java.util.concurrent.ForkJoinPool}.
+	 * 
+	 * <p>
+	 * The evaluator must be safe to share between threads when this is
+	 * greater than one, which is true of every evaluator in this library.
+	 * </p>
+	 * 
+	 * @param parallelism
+	 *            The number of tasks to split simulations across.
+	 * @return The {@link EquityCalculationBuilder} instance, for chaining.
+	 */
+	public EquityCalculationBuilder useParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Invalid parallelism " + parallelism);
+		}
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * Makes the calculator run simulations on the specified executor as well
+	 * as the calling thread. Simulations are split across the number of tasks
+	 * set using {@link EquityCalculationBuilder#useParallelism(int)}, or one
+	 * task per available processor if it has not been set.
+	 * 
+	 * @param executor
+	 *            The executor to run simulations on.
+	 * @return The {@link EquityCalculationBuilder} instance, for chaining.
+	 */
+	public EquityCalculationBuilder useExecutor(ExecutorService executor) {
+		this.executor = executor;
+		return this;
+	}
+
 	/**
 	 * Makes the calculator remove the specified cards from the deck during
 	 * calculations.
@@ -308,9 +325,7 @@ public class EquityCalculationBuilder {
 	 * @return The {@link EquityCalculationBuilder} instance, for chaining.
 	 */
 	public EquityCalculationBuilder useDeadCards(Card... cards) {
-		for (Card card : cards) {
-			dead.add(card);
-		}
+		dead = dead.union(CardSet.of(cards));
 		return this;
 	}
 
@@ -345,79 +360,242 @@ public class EquityCalculationBuilder {
 	}
 
 	/**
-	 * Simulates a river and evaluates each of the specified hands on it. The
-	 * result will be applied to each hand's respective equity.
-	 * 
-	 * @param equities The hands mapped to their respective equities.
+	 * Runs every simulation for the specified hands or ranges, splitting them
+	 * into chunks that are run across our tasks.
 	 * 
-	 * @param random The {@link java.util.Random } context to use to shuffle the
-	 * deck.
+	 * @param seed
+	 *            The seed to derive the seed of each chunk from.
+	 * @param hands
+	 *            The hands to simulate, or <code>null</code> to deal hands
+	 *            from ranges.
+	 * @param ranges
+	 *            The ranges to deal hands from if no hands are given.
+	 * @return The total win, loss and split counts of each hand or range,
+	 *         three per hand or range in the same order as the input.
 	 */
-	private void simulate(Map<Hand, Equity> equities, Random random) {
+	private long[] run(long seed, Hand[] hands, Range[] ranges) {
+		int players = hands != null ? hands.length : ranges.length;
+		int chunks = (sampleSize + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+		/*
+		 * Derive the seed of each chunk from our seed up front, so a chunk
+		 * uses the same random numbers whichever thread runs it.
+		 */
+		long[] seeds = new long[chunks];
+		SplittableRandom root = new SplittableRandom(seed);
+		for (int i = 0; i < chunks; i++) {
+			seeds[i] = root.split().nextLong();
+		}
+		long[][] results = new long[chunks][];
+		AtomicInteger next = new AtomicInteger();
 
 		/*
-		 * Create a randomized deck.
+		 * Hand out chunks to the other tasks and work on them ourselves until
+		 * there are none left, then wait for the other tasks to finish. Each
+		 * task claims its slot when it starts, so we can claim the slots of
+		 * tasks that haven't started and skip them rather than wait on a pool
+		 * that may be busy, or may be running us.
 		 */
-		Deck deck = deck().shuffle(random);
+		int tasks = parallelism > 0 ? parallelism
+				: executor != null ? Runtime.getRuntime().availableProcessors() : 1;
+		ExecutorService pool = executor != null ? executor : ForkJoinPool.commonPool();
+		AtomicIntegerArray claimed = new AtomicIntegerArray(tasks);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 1; i < tasks; i++) {
+			int slot = i;
+			futures.add(pool.submit(new Callable<Void>() {
+
+				@Override
+				public Void call() {
+					if (claimed.compareAndSet(slot, 0, 1)) {
+						work(next, seeds, results, players, hands, ranges);
+					}
+					return null;
+				}
+
+			}));
+		}
+		work(next, seeds, results, players, hands, ranges);
+		for (int i = 1; i < tasks; i++) {
+			Future<?> future = futures.get(i - 1);
+			if (claimed.compareAndSet(i, 0, 1)) {
+				future.cancel(false);
+				continue;
+			}
+			try {
+				future.get();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new IllegalStateException("Simulation failed", e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for simulations", e);
+			}
+		}
 
 		/*
-		 * Deal out the hands being used during the simulation, as well as our
-		 * dead cards.
+		 * Merge the counts of every chunk.
 		 */
-		for (Hand hand : equities.keySet()) {
-			deck.pop(hand);
+		long[] counts = new long[players * OUTCOMES];
+		for (long[] result : results) {
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] += result[i];
+			}
 		}
-		for (Card card : dead) {
-			deck.pop(card);
+		return counts;
+	}
+
+	/**
+	 * Runs chunks of simulations until there are none left.
+	 * 
+	 * @param next
+	 *            The index of the next chunk to run.
+	 * @param seeds
+	 *            The seed of each chunk.
+	 * @param results
+	 *            The counts of each chunk, set as each chunk is run.
+	 * @param players
+	 *            The number of hands or ranges.
+	 * @param hands
+	 *            The hands to simulate, or <code>null</code> to deal hands
+	 *            from ranges.
+	 * @param ranges
+	 *            The ranges to deal hands from if no hands are given.
+	 */
+	private void work(AtomicInteger next, long[] seeds, long[][] results, int players, Hand[] hands,
+			Range[] ranges) {
+		try {
+			for (int chunk = next.getAndIncrement(); chunk < seeds.length; chunk = next.getAndIncrement()) {
+				Random random = new Random(seeds[chunk]);
+				long[] counts = new long[players * OUTCOMES];
+				int samples = Math.min(CHUNK_SIZE, sampleSize - chunk * CHUNK_SIZE);
+				for (int i = 0; i < samples; i++) {
+					simulate(hands != null ? hands : deal(ranges, random), counts, random);
+				}
+				results[chunk] = counts;
+			}
+		} catch (RuntimeException e) {
+
+			/*
+			 * Stop the other tasks from starting any more chunks.
+			 */
+			next.set(seeds.length);
+			throw e;
 		}
-		for (Card card : this.board.cards()) {
-			deck.pop(card);
+	}
+
+	/**
+	 * Samples a hand from each of the specified ranges so that no two hands,
+	 * the board or the dead cards share a card.
+	 * 
+	 * <p>
+	 * Each range is sampled independently from the hands that miss the board
+	 * and the dead cards, see {@link Range#sample(Random, long)}, and the
+	 * whole deal is started again if two of the hands share a card. This
+	 * keeps the joint distribution of the hands the same whatever order the
+	 * ranges are given in, where dealing each range around the hands already
+	 * dealt would favour the earlier ranges.
+	 * </p>
+	 * 
+	 * @param ranges
+	 *            The ranges to sample hands from.
+	 * @param random
+	 *            The random context to use to sample hands.
+	 * @return The sampled hands, in the same order as their ranges.
+	 */
+	private Hand[] deal(Range[] ranges, Random random) {
+		long excluded = dead.mask() | board.cardSet().mask();
+		for (Range range : ranges) {
+			if (range.combos(excluded) == 0.0) {
+				throw new IllegalArgumentException("A range has no hands left after the board and dead cards");
+			}
+		}
+		Hand[] hands = new Hand[ranges.length];
+		attempts: for (int attempt = 0; attempt < MAX_DEAL_ATTEMPTS; attempt++) {
+			long used = 0L;
+			for (int i = 0; i < ranges.length; i++) {
+				hands[i] = ranges[i].sample(random, excluded);
+				long mask = hands[i].cardSet().mask();
+				if ((used & mask) != 0) {
+					continue attempts;
+				}
+				used |= mask;
+			}
+			return hands;
+		}
+		throw new IllegalArgumentException("These ranges could not be dealt without a card in common");
+	}
+
+	/**
+	 * Simulates a river and evaluates each of the specified hands on it. The
+	 * result will be added to each hand's respective counts.
+	 * 
+	 * @param hands
+	 *            The hands.
+	 * @param counts
+	 *            The win, loss and split counts of each hand, three per hand
+	 *            in the same order as the hands.
+	 * @param random
+	 *            The {@link java.util.Random } context to use to choose the
+	 *            cards of the river.
+	 */
+	private void simulate(Hand[] hands, long[] counts, Random random) {
+
+		/*
+		 * Collect the cards used by the hands being used during the
+		 * simulation, as well as our dead cards and the board, making sure
+		 * none of them are used twice.
+		 */
+		CardSet used = dead;
+		for (Hand hand : hands) {
+			if (hand.cardSet().intersects(used)) {
+				throw new IllegalArgumentException("Card already dealt");
+			}
+			used = used.union(hand.cardSet());
+		}
+		if (this.board.cardSet().intersects(used)) {
+			throw new IllegalArgumentException("Card already dealt");
 		}
 		
 		/*
-		 * Generate a random river using our shuffled deck for our hands to be
+		 * Generate a random river from the remaining cards for our hands to be
 		 * evaluated on.
 		 */
-		Board board = Boards.convert(this.board, Street.RIVER, deck);
+		Board board = Boards.convert(this.board, Street.RIVER, used, random);
 
 		/*
 		 * Evaluate our input hands our newly created board to it to see who the
-		 * winners were.
+		 * winners were, preparing the board once for all of them.
 		 */
-		List<Hand> best = new LinkedList<>();
-		int currentBest = Integer.MAX_VALUE;
-		for (Hand hand : equities.keySet()) {
+		PreparedBoard prepared = evaluator.prepare(board);
+		int[] ranks = new int[hands.length];
+		int best = Integer.MAX_VALUE, winners = 0;
+		for (int i = 0; i < hands.length; i++) {
 
 			// see if this hand is the best one so far
-			int rank = evaluator.rank(hand, board);
-			if (rank < currentBest) {
-
-				// clear the previous best hands and add this one
-				best.clear();
-				best.add(hand);
-
-				// update our current best ranking
-				currentBest = rank;
-			} else if (rank == currentBest) {
-				best.add(hand);
+			ranks[i] = prepared.rank(hands[i]);
+			if (ranks[i] < best) {
+				best = ranks[i];
+				winners = 1;
+			} else if (ranks[i] == best) {
+				winners++;
 			}
 		}
 
 		/*
 		 * Finally, apply our evaluation results to the sample.
 		 */
-		for (Hand hand : equities.keySet()) {
-			if (!best.contains(hand)) {
-				equities.get(hand).lose += 1;
+		for (int i = 0; i < hands.length; i++) {
+			if (ranks[i] != best) {
+				counts[i * OUTCOMES + LOSE]++;
+			} else if (winners > 1) {
+				counts[i * OUTCOMES + SPLIT]++;
+			} else {
+				counts[i * OUTCOMES + WIN]++;
 			}
 		}
-		if (best.size() > 1) {
-			for (Hand hand : best) {
-				equities.get(hand).split += 1;
-			}
-		} else {
-			equities.get(best.get(0)).win += 1;
-		}
 	}
 
 	/**
@@ -468,6 +646,21 @@ public class EquityCalculationBuilder {
 			return split;
 		}
 
+		/**
+		 * Adds the win, loss and split counts at the specified position to
+		 * this equity.
+		 * 
+		 * @param counts
+		 *            The win, loss and split counts, three per position.
+		 * @param position
+		 *            The position.
+		 */
+		private void add(long[] counts, int position) {
+			this.win += counts[position * OUTCOMES + WIN];
+			this.lose += counts[position * OUTCOMES + LOSE];
+			this.split += counts[position * OUTCOMES + SPLIT];
+		}
+
 		/**
 		 * Completes the {@link Equity} object by dividing the win/lose/split
 		 * numbers by the sample size to create a decimal average of each.
@@ -16,17 +16,16 @@
  */
 package codes.derive.foldem.tool;
 
-import static codes.derive.foldem.Poker.*;
-
 import java.awt.Color;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
-import java.util.Collection;
+import java.util.List;
 
 import codes.derive.foldem.Hand;
 import codes.derive.foldem.Range;
+import codes.derive.foldem.hand.HandGroup;
 
 /**
  * A type that can generate images containing each hand in a range and its
@@ -35,15 +34,10 @@ import codes.derive.foldem.Range;
 public class RangeMatrixBuilder {
 	
 	/* Size of the hand matrix */
-	private static final int MATRIX_SIZE = 13;
+	private static final int MATRIX_SIZE = HandGroup.SIZE;
 	
 	/* The size in pixels (excluding 1px border) of output images. */
 	private static final int SIZE_PX = 390;
-
-	/* Card labels ordered by strength. */
-	private static final char[] LABELS = {
-		'A', 'K', 'Q', 'J', 'T', '9', '8', '7', '6', '5', '4', '3', '2'
-	};
 	
 	/**
 	 * Builds a matrix image using the specified {@link Range}.
@@ -77,14 +71,15 @@ public class RangeMatrixBuilder {
 				int drawY = y * boxSize;
 				
 				/*
-				 * Obtain the label for the hand group at this coordinate,
+				 * Obtain the hand group and its label at this coordinate,
 				 */
-				String label = label(x, y);
+				HandGroup group = HandGroup.of(y * MATRIX_SIZE + x);
+				String label = group.toString();
 
 				/*
 				 * Calculate the collective weight of hands at this location.
 				 */
-				Collection<Hand> hands = handGroup(label);
+				List<Hand> hands = group.hands();
 				float weight = 0.0f;
 				for (Hand hand : hands) {
 					double w = 0.0;
@@ -145,28 +140,4 @@ public class RangeMatrixBuilder {
 		return image;
 	}
 	
-	/**
-	 * Finds the label to use at the specified coordinates of the matrix.
-	 * @param x
-	 * 		The x coordinate.
-	 * @param y
-	 * 		The y coordinate.
-	 * @return
-	 * 		The label to use at the specified coordinates.
-	 */
-	private static String label(int x, int y) {
-		StringBuilder bldr = new StringBuilder();
-		if (x < y) {
-			bldr.append(LABELS[x]).append(LABELS[y]);
-		} else {
-			bldr.append(LABELS[y]).append(LABELS[x]);
-		}
-		if (x + y > x * 2) {
-			bldr.append("o");
-		} else if (x + y < x * 2) {
-			bldr.append("s");
-		}
-		return bldr.toString();
-	}
-	
 }
@@ -17,11 +17,11 @@
 package codes.derive.foldem.tool;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import codes.derive.foldem.CardSet;
 import codes.derive.foldem.Hand;
 import codes.derive.foldem.Range;
 import codes.derive.foldem.board.Board;
@@ -30,6 +30,7 @@ import codes.derive.foldem.board.Street;
 import codes.derive.foldem.eval.DefaultEvaluator;
 import codes.derive.foldem.eval.Evaluator;
 import codes.derive.foldem.eval.HandValue;
+import codes.derive.foldem.eval.PreparedBoard;
 
 /**
  * A type that can analyze a board texture and provide an estimation of what
@@ -71,8 +72,9 @@ public class TextureAnalysisBuilder {
 		 * Collect hands that are usable with this board.
 		 */
 		List<Hand> usable = new ArrayList<>();
+		CardSet blocked = board.cardSet();
 		for (Hand hand : range.all()) {
-			if (Collections.disjoint(hand.cards(), board.cards())) {
+			if (!hand.cardSet().intersects(blocked)) {
 				usable.add(hand);
 			}
 		}
@@ -93,14 +95,16 @@ public class TextureAnalysisBuilder {
 		}
 
 		/*
-		 * Apply every hand to the results.
+		 * Apply every hand to the results, preparing our board once for all of
+		 * them.
 		 */
+		PreparedBoard prepared = evaluator.prepare(board);
 		for (Hand hand : usable) {
 			
 			/*
 			 * Find the value of our hand.
 			 */
-			HandValue value = evaluator.value(hand, board);
+			HandValue value = prepared.value(hand);
 			
 			/*
 			 * Apply it to our results at its respective weight.
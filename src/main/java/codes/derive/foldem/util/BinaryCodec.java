@@ -0,0 +1,436 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import codes.derive.foldem.Card;
+import codes.derive.foldem.Constants;
+import codes.derive.foldem.Hand;
+import codes.derive.foldem.Range;
+import codes.derive.foldem.board.Board;
+import codes.derive.foldem.board.Boards;
+import codes.derive.foldem.board.Street;
+
+/**
+ * Contains functions for reading and writing cards, hands, boards and ranges
+ * in a compact binary format using {@link java.nio.ByteBuffer}s.
+ * 
+ * <p>
+ * Values are written at the buffer's position in the buffer's byte order,
+ * and read back in the same way:
+ * </p>
+ * 
+ * <ul>
+ * <li>A card is its index, see {@link Card#index()}, in a single byte. A
+ * sequence of cards is a byte holding its length followed by 6 bits per card.
+ * </li>
+ * <li>A hand is its index, see {@link Hand#index()}, in two bytes. A sequence
+ * of hands is two bytes holding its length followed by 11 bits per hand. The
+ * cards of a hand that is read back are ordered as in {@link Hand#of(int)}.
+ * </li>
+ * <li>A board is four bytes holding the combinatorial index of its flop, its
+ * turn and river cards and its street. The flop of a board that is read back
+ * is ordered by card index.</li>
+ * <li>A range is a bit for each hand, in order of hand index, marking the
+ * hands in the range. This is followed by a bit for each of those hands
+ * marking the ones with a weight of 1, and then the weight of each of the
+ * other hands in 16 bits, as a multiple of 1/65536.</li>
+ * </ul>
+ */
+public class BinaryCodec {
+
+	/** The number of bytes used to write a hand. **/
+	public static final int HAND_BYTES = 2;
+
+	/** The number of bytes used to write a board. **/
+	public static final int BOARD_BYTES = 4;
+
+	/* The number of bits used for each card in a sequence of cards. */
+	private static final int CARD_BITS = 6;
+
+	/* The number of bits used for each hand in a sequence of hands. */
+	private static final int HAND_BITS = 11;
+
+	/* The number of steps a partial range weight is quantized to. */
+	private static final int WEIGHT_STEPS = 1 << 16;
+
+	/* The number of bits used for the combinatorial index of a flop. */
+	private static final int FLOP_BITS = 15;
+
+	/* The number of bytes used to mark the hands in a range. */
+	private static final int RANGE_MASK_BYTES = (Constants.HAND_COUNT + 7) / 8;
+
+	/* Contains the card indices of each flop packed into bytes, indexed by combinatorial index. */
+	private static final int[] FLOPS = new int[22100];
+
+	static {
+		for (int c = 2; c < Constants.DECK_SIZE; c++) {
+			for (int b = 1; b < c; b++) {
+				for (int a = 0; a < b; a++) {
+					FLOPS[flop(a, b, c)] = a | b << 8 | c << 16;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the specified card.
+	 * 
+	 * @param buffer
+	 *            The buffer to write to.
+	 * @param card
+	 *            The card.
+	 */
+	public static void writeCard(ByteBuffer buffer, Card card) {
+		buffer.put((byte) card.index());
+	}
+
+	/**
+	 * Reads a card.
+	 * 
+	 * @param buffer
+	 *            The buffer to read from.
+	 * @return The card read.
+	 */
+	public static Card readCard(ByteBuffer buffer) {
+		return Card.of(buffer.get());
+	}
+
+	/**
+	 * Writes the specified sequence of cards, keeping their order.
+	 * 
+	 * @param buffer
+	 *            The buffer to write to.
+	 * @param cards
+	 *            The cards, of which there can be no more than 255.
+	 */
+	public static void writeCards(ByteBuffer buffer, Collection<Card> cards) {
+		if (cards.size() > 0xFF) {
+			throw new IllegalArgumentException("Too many cards");
+		}
+		buffer.put((byte) cards.size());
+		int[] indices = new int[cards.size()];
+		int n = 0;
+		for (Card card : cards) {
+			indices[n++] = card.index();
+		}
+		pack(buffer, indices, n, CARD_BITS);
+	}
+
+	/**
+	 * Reads a sequence of cards.
+	 * 
+	 * @param buffer
+	 *            The buffer to read from.
+	 * @return The cards read, in the order they were written.
+	 */
+	public static List<Card> readCards(ByteBuffer buffer) {
+		int[] indices = unpack(buffer, buffer.get() & 0xFF, CARD_BITS);
+		List<Card> cards = new ArrayList<>(indices.length);
+		for (int index : indices) {
+			cards.add(Card.of(index));
+		}
+		return cards;
+	}
+
+	/**
+	 * Writes the specified hand.
+	 * 
+	 * @param buffer
+	 *            The buffer to write to.
+	 * @param hand
+	 *            The hand.
+	 */
+	public static void writeHand(ByteBuffer buffer, Hand hand) {
+		buffer.putShort((short) hand.index());
+	}
+
+	/**
+	 * Reads a hand.
+	 * 
+	 * @param buffer
+	 *            The buffer to read from.
+	 * @return The hand read.
+	 */
+	public static Hand readHand(ByteBuffer buffer) {
+		return Hand.of(buffer.getShort());
+	}
+
+	/**
+	 * Writes the specified sequence of hands, keeping their order.
+	 * 
+	 * @param buffer
+	 *            The buffer to write to.
+	 * @param hands
+	 *            The hands, of which there can be no more than 65535.
+	 */
+	public static void writeHands(ByteBuffer buffer, Collection<Hand> hands) {
+		if (hands.size() > 0xFFFF) {
+			throw new IllegalArgumentException("Too many hands");
+		}
+		buffer.putShort((short) hands.size());
+		int[] indices = new int[hands.size()];
+		int n = 0;
+		for (Hand hand : hands) {
+			indices[n++] = hand.index();
+		}
+		pack(buffer, indices, n, HAND_BITS);
+	}
+
+	/**
+	 * Reads a sequence of hands.
+	 * 
+	 * @param buffer
+	 *            The buffer to read from.
+	 * @return The hands read, in the order they were written.
+	 */
+	public static List<Hand> readHands(ByteBuffer buffer) {
+		int[] indices = unpack(buffer, buffer.getShort() & 0xFFFF, HAND_BITS);
+		List<Hand> hands = new ArrayList<>(indices.length);
+		for (int index : indices) {
+			hands.add(Hand.of(index));
+		}
+		return hands;
+	}
+
+	/**
+	 * Writes the specified board.
+	 * 
+	 * @param buffer
+	 *            The buffer to write to.
+	 * @param board
+	 *            The board.
+	 */
+	public static void writeBoard(ByteBuffer buffer, Board board) {
+		int[] cards = new int[Constants.BOARD_SIZE];
+		int n = 0;
+		for (Card card : board.cards()) {
+			cards[n++] = card.index();
+		}
+
+		/*
+		 * The flop is stored by its combinatorial index, which needs the
+		 * flop's cards in order, and the turn and river are stored as is.
+		 */
+		int bits = board.getStreet().ordinal() << (FLOP_BITS + CARD_BITS * 2);
+		if (n >= Street.FLOP.cardCount()) {
+			int a = Math.min(cards[0], Math.min(cards[1], cards[2]));
+			int c = Math.max(cards[0], Math.max(cards[1], cards[2]));
+			int b = cards[0] + cards[1] + cards[2] - a - c;
+			bits |= flop(a, b, c);
+		}
+		for (int i = Street.FLOP.cardCount(); i < n; i++) {
+			bits |= cards[i] << (FLOP_BITS + CARD_BITS * (i - Street.FLOP.cardCount()));
+		}
+		buffer.putInt(bits);
+	}
+
+	/**
+	 * Reads a board.
+	 * 
+	 * @param buffer
+	 *            The buffer to read from.
+	 * @return The board read.
+	 */
+	public static Board readBoard(ByteBuffer buffer) {
+		int bits = buffer.getInt();
+		Street street = Street.values()[bits >>> (FLOP_BITS + CARD_BITS * 2)];
+		Card[] cards = new Card[street.cardCount()];
+		if (cards.length >= Street.FLOP.cardCount()) {
+			int flop = FLOPS[bits & ((1 << FLOP_BITS) - 1)];
+			cards[0] = Card.of(flop & 0xFF);
+			cards[1] = Card.of(flop >>> 8 & 0xFF);
+			cards[2] = Card.of(flop >>> 16);
+		}
+		for (int i = Street.FLOP.cardCount(); i < cards.length; i++) {
+			cards[i] = Card.of(bits >>> (FLOP_BITS + CARD_BITS * (i - Street.FLOP.cardCount()))
+					& ((1 << CARD_BITS) - 1));
+		}
+		return Boards.board(cards);
+	}
+
+	/**
+	 * Writes the specified range.
+	 * 
+	 * @param buffer
+	 *            The buffer to write to.
+	 * @param range
+	 *            The range.
+	 */
+	public static void writeRange(ByteBuffer buffer, Range range) {
+		byte[] mask = new byte[RANGE_MASK_BYTES];
+		for (Hand hand : range.all()) {
+			mask[hand.index() >>> 3] |= 1 << (hand.index() & 7);
+		}
+		buffer.put(mask);
+
+		/*
+		 * Mark the hands with a full weight, which is most of them, so that
+		 * only the others need their weights written.
+		 */
+		double[] weights = new double[range.size()];
+		int[] full = new int[weights.length];
+		int n = 0;
+		for (int i = 0; i < Constants.HAND_COUNT; i++) {
+			if ((mask[i >>> 3] & 1 << (i & 7)) != 0) {
+				weights[n] = range.weight(Hand.of(i));
+				full[n] = weights[n] == 1.0 ? 1 : 0;
+				n++;
+			}
+		}
+		pack(buffer, full, n, 1);
+		for (int i = 0; i < n; i++) {
+			if (full[i] == 0) {
+				buffer.putShort((short) quantize(weights[i]));
+			}
+		}
+	}
+
+	/**
+	 * Reads a range.
+	 * 
+	 * @param buffer
+	 *            The buffer to read from.
+	 * @return The range read.
+	 */
+	public static Range readRange(ByteBuffer buffer) {
+		byte[] mask = new byte[RANGE_MASK_BYTES];
+		buffer.get(mask);
+		int size = 0;
+		for (byte b : mask) {
+			size += Integer.bitCount(b & 0xFF);
+		}
+		int[] full = unpack(buffer, size, 1);
+		Range range = new Range();
+		int n = 0;
+		for (int i = 0; i < Constants.HAND_COUNT; i++) {
+			if ((mask[i >>> 3] & 1 << (i & 7)) != 0) {
+				if (full[n++] == 1) {
+					range.define(Hand.of(i));
+				} else {
+					range.define(((buffer.getShort() & 0xFFFF) + 1) / (double) WEIGHT_STEPS, Hand.of(i));
+				}
+			}
+		}
+		return range;
+	}
+
+	/**
+	 * Obtains the number of bytes used to write the specified range.
+	 * 
+	 * @param range
+	 *            The range.
+	 * @return The number of bytes used to write the range.
+	 */
+	public static int rangeBytes(Range range) {
+		int partial = 0;
+		for (Hand hand : range.all()) {
+			if (range.weight(hand) != 1.0) {
+				partial++;
+			}
+		}
+		return RANGE_MASK_BYTES + (range.size() + 7) / 8 + partial * Short.BYTES;
+	}
+
+	/**
+	 * Quantizes the specified partial weight to 16 bits, the weight being
+	 * the quantized value plus one over 65536.
+	 * 
+	 * @param weight
+	 *            The weight, greater than 0 and no greater than 1.
+	 * @return The quantized weight.
+	 */
+	private static int quantize(double weight) {
+		long steps = Math.round(weight * WEIGHT_STEPS) - 1;
+		return (int) Math.max(0, Math.min(WEIGHT_STEPS - 1, steps));
+	}
+
+	/**
+	 * Packs the specified values into bytes from the lowest bit up.
+	 * 
+	 * @param buffer
+	 *            The buffer to write to.
+	 * @param values
+	 *            The values to pack.
+	 * @param count
+	 *            The number of values to pack.
+	 * @param width
+	 *            The number of bits used for each value.
+	 */
+	private static void pack(ByteBuffer buffer, int[] values, int count, int width) {
+		int bits = 0, pending = 0;
+		for (int i = 0; i < count; i++) {
+			bits |= values[i] << pending;
+			pending += width;
+			while (pending >= Byte.SIZE) {
+				buffer.put((byte) bits);
+				bits >>>= Byte.SIZE;
+				pending -= Byte.SIZE;
+			}
+		}
+		if (pending > 0) {
+			buffer.put((byte) bits);
+		}
+	}
+
+	/**
+	 * Unpacks values packed by {@link #pack(ByteBuffer, int[], int, int)}.
+	 * 
+	 * @param buffer
+	 *            The buffer to read from.
+	 * @param count
+	 *            The number of values to unpack.
+	 * @param width
+	 *            The number of bits used for each value.
+	 * @return The values unpacked.
+	 */
+	private static int[] unpack(ByteBuffer buffer, int count, int width) {
+		int[] values = new int[count];
+		int bits = 0, pending = 0;
+		for (int i = 0; i < count; i++) {
+			while (pending < width) {
+				bits |= (buffer.get() & 0xFF) << pending;
+				pending += Byte.SIZE;
+			}
+			values[i] = bits & ((1 << width) - 1);
+			bits >>>= width;
+			pending -= width;
+		}
+		return values;
+	}
+
+	/**
+	 * Obtains the combinatorial index of the flop with the specified card
+	 * indices.
+	 * 
+	 * @param a
+	 *            The lowest card index.
+	 * @param b
+	 *            The middle card index.
+	 * @param c
+	 *            The highest card index.
+	 * @return The combinatorial index of the flop.
+	 */
+	private static int flop(int a, int b, int c) {
+		return a + b * (b - 1) / 2 + c * (c - 1) * (c - 2) / 6;
+	}
+
+}
@@ -33,4 +33,31 @@ public class TestCard {
 		assertEquals(card(deck()), deck().pop());
 	}
 	
+	@Test
+	public void testIndex() {
+		Card[] cards = deck().toArray();
+		for (int i = 0; i < cards.length; i++) {
+			assertEquals(i, cards[i].index());
+			assertEquals(cards[i].getValue(), Card.value(i));
+			assertEquals(cards[i].getSuit(), Card.suit(i));
+			assertEquals(1L << i, cards[i].mask());
+		}
+	}
+	
+	@Test
+	public void testSharedInstances() {
+		for (int i = 0; i < 52; i++) {
+			Card card = Card.of(i);
+			assertSame(card, Card.of(card.getValue(), card.getSuit()));
+			assertSame(card, Card.of(card.toString()));
+			assertSame(card, deck().toArray()[i]);
+		}
+		assertSame(card("Td"), hand("Td2c").cards().iterator().next());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidShorthand() {
+		Card.of("Ax");
+	}
+	
 }
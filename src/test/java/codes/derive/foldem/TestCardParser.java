@@ -0,0 +1,72 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem;
+
+import static codes.derive.foldem.Poker.*;
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class TestCardParser {
+
+	@Test
+	public void testParsing() {
+		String text = "AsKd 7h2c QhQc9s";
+		assertEquals(card("As").index(), CardParser.card(text, 0));
+		assertEquals(hand("7h2c").index(), CardParser.hand(text, 5));
+		assertEquals(board("QhQc9s").cardSet().mask(), CardParser.cards(text, 10, 3));
+		assertEquals(hand("AsKd").cardSet(), CardParser.cardSet("KdAs"));
+
+		// buffers should be read at absolute offsets
+		ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+		assertEquals(card("Kd").index(), CardParser.card(buffer, 2));
+		assertEquals(hand("7h2c").index(), CardParser.hand(buffer, 5));
+		assertEquals(board("QhQc9s").cardSet().mask(), CardParser.cards(buffer, 10, 3));
+		assertEquals(0, buffer.position());
+	}
+
+	@Test
+	public void testErrorPositions() {
+		assertPosition("AsKx", 3);
+		assertPosition("As1d", 2);
+		assertPosition("AsKdA", 4);
+		assertPosition("AsKdAs", 4);
+		assertPosition("Aséd", 2);
+	}
+
+	/**
+	 * Asserts that parsing the specified cards fails at the specified
+	 * position.
+	 * 
+	 * @param text
+	 *            The cards.
+	 * @param position
+	 *            The expected position of the error.
+	 */
+	private static void assertPosition(String text, int position) {
+		try {
+			CardParser.cards(text);
+			fail("Parsed invalid cards " + text);
+		} catch (ShorthandException e) {
+			assertEquals(position, e.getPosition());
+		}
+	}
+
+}
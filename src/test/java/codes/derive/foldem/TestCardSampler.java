@@ -0,0 +1,83 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem;
+
+import static codes.derive.foldem.Poker.*;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import codes.derive.foldem.board.Board;
+import codes.derive.foldem.board.Boards;
+import codes.derive.foldem.board.Street;
+
+public class TestCardSampler {
+
+	@Test
+	public void testSelect() {
+		Random random = new Random(0);
+		for (int i = 0; i < 1000; i++) {
+			long mask = random.nextLong() & CardSet.ALL.mask();
+			int n = 0;
+			for (long bits = mask; bits != 0; bits &= bits - 1) {
+				assertEquals(Long.numberOfTrailingZeros(bits), CardSampler.select(mask, n++));
+			}
+		}
+	}
+
+	@Test
+	public void testDraw() {
+		CardSet dead = hand("AsKs").cardSet().union(board("QsJsTs").cardSet());
+		Random random = new Random(0);
+		int[] occurrences = new int[Constants.DECK_SIZE];
+		for (int i = 0; i < 47000; i++) {
+			CardSet drawn = CardSampler.draw(dead, 2, random);
+			assertEquals(2, drawn.size());
+			assertFalse(drawn.intersects(dead));
+			for (Card card : drawn) {
+				occurrences[card.index()]++;
+			}
+		}
+		
+		// each of the 47 live cards should be drawn around 2000 times
+		for (Card card : cards()) {
+			if (dead.contains(card)) {
+				assertEquals(0, occurrences[card.index()]);
+			} else {
+				assertEquals(2000, occurrences[card.index()], 250);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDrawTooMany() {
+		CardSampler.draw(CardSet.ALL.minus(CardSet.of(card("As"))).mask(), 2, new Random(0));
+	}
+
+	@Test
+	public void testConvert() {
+		Board board = board("AsKsQs");
+		CardSet dead = hand("JsTs").cardSet();
+		Board river = Boards.convert(board, Street.RIVER, dead, new Random(0));
+		assertEquals(5, river.cardSet().size());
+		assertTrue(river.cardSet().containsAll(board.cardSet()));
+		assertFalse(river.cardSet().intersects(dead));
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem;
+
+import static codes.derive.foldem.Poker.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class TestCardSet {
+
+	@Test
+	public void testOperations() {
+		CardSet a = hand("AsKs").cardSet();
+		CardSet b = board("KsQh2c").cardSet();
+
+		assertTrue(a.intersects(b));
+		assertFalse(a.intersects(hand("AcKc").cardSet()));
+		assertEquals(CardSet.of(card("Ks")), a.intersection(b));
+		assertEquals(CardSet.of(card("As")), a.minus(b));
+		assertEquals(4, a.union(b).size());
+		assertTrue(a.union(b).containsAll(a));
+		assertFalse(a.containsAll(b));
+		assertEquals(50, a.complement().size());
+		assertFalse(a.complement().contains(card("As")));
+		assertEquals(a, CardSet.EMPTY.with(card("Ks")).with(card("As")));
+		assertTrue(a.without(card("As")).without(card("Ks")).isEmpty());
+	}
+
+	@Test
+	public void testIteration() {
+		List<Card> cards = new ArrayList<>();
+		for (Card card : CardSet.ALL) {
+			cards.add(card);
+		}
+		assertEquals(new ArrayList<>(cards()), cards);
+		assertEquals("As2c", CardSet.of(card("2c"), card("As")).toString());
+	}
+
+	@Test
+	public void testDeck() {
+		Deck deck = deck();
+		Card card = deck.pop();
+		assertEquals(51, deck.cardSet().size());
+		assertFalse(deck.cardSet().contains(card));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidMask() {
+		CardSet.of(1L << 52);
+	}
+
+}
@@ -20,7 +20,11 @@ import static codes.derive.foldem.Poker.*;
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
 import org.junit.Test;
 
 public class TestDeck {
@@ -94,5 +98,40 @@ public class TestDeck {
 		assertTrue(deck.dealt(deck.pop()));
 		assertFalse(deck.dealt(deck.peek()));
 	}
+
+	@Test
+	public void testReset() {
+		Deck deck = deck().shuffle(new Random(0));
+		deck.pop(card("As"));
+		deck.pop();
+		Card[] order = deck.toArray().clone();
+		
+		// resetting should return every card without reordering them
+		deck.reset();
+		assertEquals(52, deck.remaining());
+		assertFalse(deck.dealt(card("As")));
+		for (Card card : order) {
+			assertEquals(card, deck.pop());
+		}
+	}
+	
+	@Test
+	public void testLazyShuffle() {
+		Deck deck = deck();
+		for (int i = 0; i < 10; i++) {
+			deck.reset(new Random(i));
+			deck.pop(hand("AsKs"));
+			
+			// peeking should not change which card is dealt next
+			Set<Card> dealt = new HashSet<>();
+			while (deck.remaining() > 0) {
+				Card next = deck.peek();
+				assertEquals(next, deck.pop());
+				assertTrue(dealt.add(next));
+			}
+			assertEquals(50, dealt.size());
+			assertFalse(dealt.contains(card("As")));
+		}
+	}
 	
 }
@@ -0,0 +1,135 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem;
+
+import static codes.derive.foldem.Poker.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class TestRangeParser {
+
+	@Test
+	public void testNotation() {
+		Range range = range("QQ+, AKs, A5s-A2s, 55%KQo, JTs:0.5");
+		assertEquals(18 + 4 + 16 + 12 + 4, range.size());
+		assertEquals(1.0, range.weight(hand("QhQc")), 0.0);
+		assertEquals(1.0, range.weight(hand("As3s")), 0.0);
+		assertEquals(0.55, range.weight(hand("KhQc")), 1e-9);
+		assertEquals(0.5, range.weight(hand("JdTd")), 0.0);
+		assertFalse(range.contains(hand("JhJc")));
+		assertFalse(range.contains(hand("AsKd")));
+		assertFalse(range.contains(hand("As6s")));
+
+		assertEquals(range(), range(" "));
+		assertEquals(range().define(handGroup("AK")), range("AK"));
+		assertEquals(range().define(handGroup("ATs")).define(handGroup("AJs")).define(handGroup("AQs"))
+				.define(handGroup("AKs")), range("ATs+"));
+		assertEquals(range().define(handGroup("99")).define(handGroup("88")).define(handGroup("77")),
+				range("77-99"));
+		assertEquals(range(hand("AsKs")).define(0.25, hand("2c2d")), range("AsKs, 2c2d : 0.25"));
+
+		// later items override earlier ones
+		assertEquals(0.5, range("AA, 50%AA").weight(hand("AsAh")), 0.0);
+	}
+
+	@Test
+	public void testCache() {
+		RangeParser parser = new RangeParser(2);
+		Range range = parser.parse("QQ+, AKs");
+		assertSame(range, parser.parse("QQ+,AKs"));
+		assertEquals(range("QQ+,AKs"), range);
+		assertEquals(1, parser.hits());
+		assertEquals(1, parser.misses());
+
+		// the range we looked up survives being pushed out once
+		parser.parse("JJ");
+		parser.parse("TT");
+		assertSame(range, parser.parse("QQ+, AKs"));
+		assertEquals(2, parser.hits());
+		assertEquals(3, parser.misses());
+
+		try {
+			range.define(hand("2c2d"));
+			fail("Changed a cached range");
+		} catch (IllegalStateException e) {
+			// cached ranges are shared and can't be changed
+		}
+
+		// only whitespace that is ignored is left out of the key
+		assertSame(parser.parse("AKs:0.5"), parser.parse(" AKs : 0.5 "));
+		parser.parse("AKs");
+		try {
+			parser.parse("A Ks");
+			fail("Parsed invalid notation from the cache");
+		} catch (ShorthandException e) {
+			assertEquals(0, e.getPosition());
+		}
+	}
+
+	@Test
+	public void testChurn() {
+		RangeParser parser = new RangeParser(4);
+		Range range = parser.parse("QQ+, AKs");
+
+		// a range that keeps being looked up outlives ranges that are only seen once
+		String[] values = { "A", "K", "Q", "J", "T", "9", "8", "7", "6", "5", "4", "3", "2" };
+		for (String high : values) {
+			for (String low : values) {
+				parser.parse(high + low + "o:0.5");
+				parser.parse(high + low + "o:0.25");
+				assertSame(range, parser.parse("QQ+, AKs"));
+			}
+		}
+		assertEquals(1 + 2 * values.length * values.length, parser.misses());
+	}
+
+	@Test
+	public void testErrorPositions() {
+		assertPosition("QQ+, AKx", 7);
+		assertPosition("QQ+,, AKs", 4);
+		assertPosition("AA,", 3);
+		assertPosition("AKs-QJs", 3);
+		assertPosition("AAs", 2);
+		assertPosition("AsAs", 2);
+		assertPosition("150%AA", 0);
+		assertPosition("AA:0.5x", 6);
+		assertPosition("50%AA:0.5", 5);
+		assertPosition("A", 0);
+		assertPosition("KK, A", 4);
+		assertPosition("KK, 50%A", 7);
+	}
+
+	/**
+	 * Asserts that compiling the specified notation fails at the specified
+	 * position.
+	 * 
+	 * @param notation
+	 *            The range notation.
+	 * @param position
+	 *            The expected position of the error.
+	 */
+	private static void assertPosition(String notation, int position) {
+		try {
+			RangeParser.compile(notation);
+			fail("Compiled invalid notation " + notation);
+		} catch (ShorthandException e) {
+			assertEquals(position, e.getPosition());
+		}
+	}
+
+}
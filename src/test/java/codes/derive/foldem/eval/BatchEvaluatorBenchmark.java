@@ -0,0 +1,80 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares ranking batches of random 7 card hands using
+ * {@link BatchEvaluator} against ranking them one at a time using
+ * {@link DefaultEvaluator}.
+ *
+ * <p>
+ * This is not run as part of the test suite since timings on shared CI
+ * machines are meaningless, run it manually using its main method on the
+ * machines you intend to use. Running with
+ * <code>-XX:+UnlockDiagnosticVMOptions -XX:+PrintCompilation</code> or
+ * comparing runs with <code>-XX:UseAVX=0</code> shows how much the JIT
+ * compiler's vectorization of the lane loops contributes.
+ * </p>
+ */
+public class BatchEvaluatorBenchmark {
+
+	/* The number of hands to rank per round. */
+	private static final int HANDS = 1 << 20;
+
+	/* The number of rounds to perform, the first half are warm up. */
+	private static final int ROUNDS = 10;
+
+	public static void main(String... args) {
+
+		/*
+		 * Create a random set of 7 card hands to rank.
+		 */
+		long[] cards = new long[HANDS];
+		Random random = new Random(0);
+		for (int i = 0; i < cards.length; i++) {
+			while (Long.bitCount(cards[i]) < 7) {
+				cards[i] |= 1L << random.nextInt(52);
+			}
+		}
+
+		Evaluator scalar = new DefaultEvaluator();
+		Evaluator batch = new BatchEvaluator();
+		int[] expected = new int[HANDS];
+		int[] actual = new int[HANDS];
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			scalar.rankAll(cards, expected);
+			long scalarTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			batch.rankAll(cards, actual);
+			long batchTime = System.nanoTime() - start;
+
+			if (!Arrays.equals(expected, actual)) {
+				throw new AssertionError("Batch ranks do not match scalar ranks");
+			}
+			if (round >= ROUNDS / 2) {
+				System.out.printf("Scalar: %.2f ns/hand, batch: %.2f ns/hand%n",
+						(double) scalarTime / HANDS, (double) batchTime / HANDS);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,282 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import codes.derive.foldem.Constants;
+
+/**
+ * Checks evaluators against {@link DefaultEvaluator} on every 5, 6 and 7 card
+ * hand and reports how many evaluations per second each evaluator manages on
+ * a single core.
+ *
+ * <p>
+ * Checking every 7 card hand takes several minutes, so only the 5 card check
+ * is run as part of the test suite by {@link TestEvaluatorHarness}. Run the
+ * full harness manually using its main method before trusting a new
+ * evaluator, registering it in {@link #evaluators()}.
+ * </p>
+ */
+public class EvaluatorHarness {
+
+	/* The number of hands to rank with each call to rankAll. */
+	private static final int BATCH_SIZE = 1 << 10;
+
+	/* The number of random hands to use when measuring throughput. */
+	private static final int THROUGHPUT_HANDS = 1 << 20;
+
+	/* The number of rounds to measure throughput over, the first half are warm up. */
+	private static final int THROUGHPUT_ROUNDS = 6;
+
+	public static void main(String... args) {
+		Evaluator reference = new DefaultEvaluator();
+		for (Map.Entry<String, Evaluator> entry : evaluators().entrySet()) {
+			Evaluator eval = entry.getValue();
+			for (int n = 5; n <= 7; n++) {
+				long start = System.nanoTime();
+				Result result = check(reference, eval, n);
+				System.out.printf("%s: %d %d card hands checked in %dms, %s%n",
+						entry.getKey(), result.hands, n,
+						(System.nanoTime() - start) / 1000000, result);
+			}
+		}
+		for (Map.Entry<String, Evaluator> entry : evaluators().entrySet()) {
+			System.out.printf("%s: %.0f 7 card evaluations/second/core%n",
+					entry.getKey(), throughput(entry.getValue(), 7));
+		}
+	}
+
+	/**
+	 * Obtains the evaluators checked by this harness mapped to their names.
+	 *
+	 * @return The evaluators checked by this harness.
+	 */
+	public static Map<String, Evaluator> evaluators() {
+		Map<String, Evaluator> evaluators = new LinkedHashMap<>();
+		evaluators.put("DefaultEvaluator", new DefaultEvaluator());
+		evaluators.put("PerfectHashEvaluator", new PerfectHashEvaluator());
+		evaluators.put("TwoPlusTwoEvaluator", new TwoPlusTwoEvaluator());
+		evaluators.put("BatchEvaluator", new BatchEvaluator());
+		return evaluators;
+	}
+
+	/**
+	 * Ranks every hand with the specified number of cards using both
+	 * evaluators, in parallel, and counts the hands they disagree on. Each
+	 * hand is ranked by the evaluator being checked using both
+	 * {@link Evaluator#rank(long)} and {@link Evaluator#rankAll(long[], int[])}.
+	 *
+	 * @param reference
+	 *            The evaluator known to be correct.
+	 * @param eval
+	 *            The evaluator to check.
+	 * @param n
+	 *            The number of cards in each hand, at least 2.
+	 * @return The result of the check.
+	 */
+	public static Result check(Evaluator reference, Evaluator eval, int n) {
+		LongAdder hands = new LongAdder();
+		LongAdder mismatches = new LongAdder();
+		AtomicLong first = new AtomicLong(-1);
+
+		/*
+		 * Split the work by the two lowest cards of each hand, which gives
+		 * enough tasks to keep every core busy.
+		 */
+		IntStream.range(0, Constants.DECK_SIZE * Constants.DECK_SIZE).parallel().forEach(pair -> {
+			int c0 = pair / Constants.DECK_SIZE, c1 = pair % Constants.DECK_SIZE;
+			if (c0 >= c1) {
+				return;
+			}
+			long low = 1L << c0 | 1L << c1;
+			long[] batch = new long[BATCH_SIZE];
+			int[] expected = new int[BATCH_SIZE];
+			int[] actual = new int[BATCH_SIZE];
+			int len = 0;
+
+			/*
+			 * Visit each set of the remaining cards above our two lowest in
+			 * order of their masks, shifted down to start at the first card
+			 * above our two lowest.
+			 */
+			long end = 1L << (Constants.DECK_SIZE - c1 - 1);
+			for (long rest = (1L << (n - 2)) - 1; rest < end; rest = next(rest)) {
+				batch[len++] = low | rest << (c1 + 1);
+				if (len == BATCH_SIZE) {
+					compare(reference, eval, batch, len, expected, actual, mismatches, first);
+					hands.add(len);
+					len = 0;
+				}
+				if (rest == 0) {
+
+					/*
+					 * There is only one hand when there are no remaining
+					 * cards.
+					 */
+					break;
+				}
+			}
+			compare(reference, eval, batch, len, expected, actual, mismatches, first);
+			hands.add(len);
+		});
+		return new Result(hands.sum(), mismatches.sum(), first.get());
+	}
+
+	/**
+	 * Measures how many hands with the specified number of cards the
+	 * specified evaluator can rank per second on the calling thread.
+	 *
+	 * @param eval
+	 *            The evaluator to measure.
+	 * @param n
+	 *            The number of cards in each hand.
+	 * @return The number of evaluations per second.
+	 */
+	public static double throughput(Evaluator eval, int n) {
+		long[] cards = new long[THROUGHPUT_HANDS];
+		Random random = new Random(0);
+		for (int i = 0; i < cards.length; i++) {
+			while (Long.bitCount(cards[i]) < n) {
+				cards[i] |= 1L << random.nextInt(Constants.DECK_SIZE);
+			}
+		}
+		int[] out = new int[THROUGHPUT_HANDS];
+		long time = 0;
+		for (int round = 0; round < THROUGHPUT_ROUNDS; round++) {
+			long start = System.nanoTime();
+			eval.rankAll(cards, out);
+			if (round >= THROUGHPUT_ROUNDS / 2) {
+				time += System.nanoTime() - start;
+			}
+		}
+		return (double) THROUGHPUT_HANDS * (THROUGHPUT_ROUNDS - THROUGHPUT_ROUNDS / 2) / time * 1e9;
+	}
+
+	/**
+	 * Ranks a batch of hands using both evaluators and records any hands they
+	 * disagree on.
+	 *
+	 * @param reference
+	 *            The evaluator known to be correct.
+	 * @param eval
+	 *            The evaluator to check.
+	 * @param batch
+	 *            The card masks of the hands to rank.
+	 * @param len
+	 *            The number of hands in the batch.
+	 * @param expected
+	 *            Scratch space for the reference ranks.
+	 * @param actual
+	 *            Scratch space for the ranks being checked.
+	 * @param mismatches
+	 *            The number of hands the evaluators disagreed on.
+	 * @param first
+	 *            The card mask of the first hand they disagreed on.
+	 */
+	private static void compare(Evaluator reference, Evaluator eval, long[] batch, int len,
+			int[] expected, int[] actual, LongAdder mismatches, AtomicLong first) {
+		for (int i = 0; i < len; i++) {
+			expected[i] = reference.rank(batch[i]);
+		}
+		eval.rankAll(len == batch.length ? batch : Arrays.copyOf(batch, len), actual);
+		for (int i = 0; i < len; i++) {
+			if (actual[i] != expected[i] || eval.rank(batch[i]) != expected[i]) {
+				mismatches.increment();
+				first.compareAndSet(-1, batch[i]);
+			}
+		}
+	}
+
+	/**
+	 * Finds the next largest mask with the same number of bits set as the
+	 * specified mask.
+	 *
+	 * @param mask
+	 *            The mask.
+	 * @return The next mask, or 0 if there are no more 64 bit masks.
+	 */
+	private static long next(long mask) {
+		long t = mask | (mask - 1);
+		return (t + 1) | (((~t & -~t) - 1) >>> (Long.numberOfTrailingZeros(mask) + 1));
+	}
+
+	/**
+	 * The result of checking an evaluator.
+	 */
+	public static class Result {
+
+		/* The number of hands checked. */
+		private final long hands;
+
+		/* The number of hands the evaluators disagreed on. */
+		private final long mismatches;
+
+		/* The card mask of the first hand they disagreed on, or -1. */
+		private final long first;
+
+		/**
+		 * Constructs a new {@link Result}.
+		 *
+		 * @param hands
+		 *            The number of hands checked.
+		 * @param mismatches
+		 *            The number of hands the evaluators disagreed on.
+		 * @param first
+		 *            The card mask of the first hand they disagreed on.
+		 */
+		private Result(long hands, long mismatches, long first) {
+			this.hands = hands;
+			this.mismatches = mismatches;
+			this.first = first;
+		}
+
+		/**
+		 * Obtains the number of hands checked.
+		 *
+		 * @return The number of hands checked.
+		 */
+		public long hands() {
+			return hands;
+		}
+
+		/**
+		 * Obtains the number of hands the evaluators disagreed on.
+		 *
+		 * @return The number of hands the evaluators disagreed on.
+		 */
+		public long mismatches() {
+			return mismatches;
+		}
+
+		@Override
+		public String toString() {
+			if (mismatches == 0) {
+				return "no mismatches";
+			}
+			return mismatches + " mismatches, first with card mask 0x" + Long.toHexString(first);
+		}
+
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares 5 card rank lookups in the {@link DefaultEvaluator} rank table
+ * against the boxed {@link java.util.HashMap} it replaced.
+ *
+ * <p>
+ * This is not run as part of the test suite since timings on shared CI
+ * machines are meaningless, run it manually using its main method.
+ * </p>
+ */
+public class RankTableBenchmark {
+
+	/* Bitmask for suited 5-card hand hashes. */
+	private static final int SUITED_MASK = 0x80000000;
+
+	/* The number of lookups to perform per round. */
+	private static final int LOOKUPS = 1 << 24;
+
+	/* The number of rounds to perform, the first half are warm up. */
+	private static final int ROUNDS = 10;
+
+	public static void main(String... args) throws IOException {
+
+		/*
+		 * Load the rank data into a map the same way the evaluator used to,
+		 * skipping over the table header.
+		 */
+		Map<Integer, Short> map = new HashMap<>();
+		try (DataInputStream in = new DataInputStream(
+				DefaultEvaluator.class.getResourceAsStream(RankTable.FILE_NAME))) {
+			in.skipBytes(4 * Integer.BYTES);
+			for (short i = 0; i < DefaultEvaluator.DISTINCT_VALUES; i++) {
+				map.put(in.readInt(), i);
+			}
+		}
+
+		/*
+		 * Create a random sequence of keys to look up.
+		 */
+		Integer[] boxed = map.keySet().toArray(new Integer[0]);
+		int[] keys = new int[LOOKUPS];
+		Random random = new Random(0);
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = boxed[random.nextInt(boxed.length)];
+		}
+
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			long sum = 0;
+			for (int key : keys) {
+				sum += map.get(key);
+			}
+			long mapTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int key : keys) {
+				sum -= DefaultEvaluator.rank5(key & ~SUITED_MASK, (key & SUITED_MASK) != 0);
+			}
+			long tableTime = System.nanoTime() - start;
+
+			if (sum != 0) {
+				throw new AssertionError("Rank table does not match rank data");
+			}
+			if (round >= ROUNDS / 2) {
+				System.out.printf("HashMap: %.2f ns/lookup, table: %.2f ns/lookup%n",
+						(double) mapTime / LOOKUPS, (double) tableTime / LOOKUPS);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import static codes.derive.foldem.Poker.*;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestBatchEvaluator {
+
+	@Test
+	public void testEvaluation() {
+		Evaluator eval = new BatchEvaluator();
+		assertEquals(3414, eval.rank(hand("AcQs"), board("As2d7h")));
+		assertEquals(9, eval.rank(hand("Ad5d"), board("8s4d3d2d9s")));
+	}
+
+	@Test
+	public void testBatchMatchesDefaultEvaluator() {
+		Evaluator expected = new DefaultEvaluator();
+		Evaluator eval = new BatchEvaluator();
+
+		// mostly 7 card hands, with some 5 and 6 card hands mixed in and a
+		// batch size that doesn't fill the last set of lanes
+		Random random = new Random(0);
+		long[] cards = new long[10003];
+		for (int i = 0; i < cards.length; i++) {
+			int n = random.nextInt(10) == 0 ? 5 + random.nextInt(2) : 7;
+			while (Long.bitCount(cards[i]) < n) {
+				cards[i] |= 1L << random.nextInt(52);
+			}
+		}
+		int[] out = new int[cards.length];
+		eval.rankAll(cards, out);
+		for (int i = 0; i < cards.length; i++) {
+			assertEquals(expected.rank(cards[i]), out[i]);
+		}
+	}
+
+}
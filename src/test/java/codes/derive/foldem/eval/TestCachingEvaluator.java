@@ -0,0 +1,100 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import static codes.derive.foldem.Poker.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class TestCachingEvaluator {
+
+	@Test
+	public void testEvaluation() {
+		CachingEvaluator eval = new CachingEvaluator(new DefaultEvaluator(), 1024);
+		for (int i = 0; i < 2; i++) {
+			assertEquals(3414, eval.rank(hand("AcQs"), board("As2d7h")));
+			assertEquals(5979, eval.rank(hand("2dQh"), board("As2d7h")));
+		}
+
+		// the repeated card in the second hand can't be cached
+		assertEquals(1, eval.hits());
+		assertEquals(1, eval.misses());
+
+		// hand values are found from the cached ranks
+		Evaluator expected = new DefaultEvaluator();
+		assertEquals(expected.value(hand("AcQs"), board("As2d7h")), eval.value(hand("AcQs"), board("As2d7h")));
+		assertEquals(2, eval.hits());
+		assertEquals(1, eval.misses());
+	}
+
+	@Test
+	public void testEviction() {
+		CachingEvaluator eval = new CachingEvaluator(new DefaultEvaluator(), 1);
+		Random random = new Random(0);
+		for (int i = 0; i < 10000; i++) {
+			eval.rank(randomHand(random));
+		}
+		assertEquals(10000, eval.hits() + eval.misses());
+		assertTrue(eval.evictions() > 0);
+		assertTrue(eval.evictions() <= eval.misses() - eval.capacity() / CachingEvaluator.WAYS);
+	}
+
+	@Test
+	public void testConcurrentAccess() throws Exception {
+		Evaluator expected = new DefaultEvaluator();
+		CachingEvaluator eval = new CachingEvaluator(expected, 4096);
+
+		// have a few threads rank an overlapping set of hands
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				futures.add(executor.submit(() -> {
+					Random random = new Random(0);
+					for (int i = 0; i < 20000; i++) {
+						long cards = randomHand(random);
+						assertEquals(expected.rank(cards), eval.rank(cards));
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(80000, eval.hits() + eval.misses());
+		assertTrue(eval.hits() > 0);
+	}
+
+	private static long randomHand(Random random) {
+		long cards = 0L;
+		while (Long.bitCount(cards) < 7) {
+			cards |= 1L << random.nextInt(52);
+		}
+		return cards;
+	}
+
+}
@@ -19,11 +19,13 @@ package codes.derive.foldem.eval;
 import static codes.derive.foldem.Poker.*;
 import static org.junit.Assert.*;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.junit.Test;
 
+import codes.derive.foldem.Card;
 import codes.derive.foldem.Hand;
 import codes.derive.foldem.board.Board;
 import codes.derive.foldem.board.Boards;
@@ -53,6 +55,62 @@ public class TestDefaultEvaluator {
 
 	}
 
+	@Test
+	public void testPrimitiveRanking() {
+		Evaluator eval = new DefaultEvaluator();
+		Hand hand = hand("AcQs");
+		Board board = board("As2d7h9c3s");
+		int expected = eval.rank(hand, board);
+		
+		// rank the same cards using indices and masks
+		int[] cards = new int[7];
+		int len = 0;
+		for (Card card : hand.cards()) {
+			cards[len++] = card.index();
+		}
+		for (Card card : board.cards()) {
+			cards[len++] = card.index();
+		}
+		assertEquals(expected, eval.rank(cards, len));
+		assertEquals(expected, eval.rank(cards[0], cards[1], cards[2],
+				cards[3], cards[4], cards[5], cards[6]));
+		assertEquals(expected, eval.rank(Card.mask(hand.cards()) | Card.mask(board.cards())));
+	}
+
+	@Test
+	public void testPreparedBoard() {
+		Evaluator eval = new DefaultEvaluator();
+		for (Board board : new Board[] { board("As2d7h"), board("Kc9c4c2h"), board("8s4d3d2d9s") }) {
+			PreparedBoard prepared = eval.prepare(board);
+			for (Hand hand : hands()) {
+				if (Collections.disjoint(hand.cards(), board.cards())) {
+					assertEquals(eval.rank(hand, board), prepared.rank(hand));
+					assertEquals(eval.value(hand, board), prepared.value(hand));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBatchRanking() {
+		Evaluator eval = new DefaultEvaluator();
+		Hand[] hands = { hand("AcQs"), hand("9c7s"), hand("AcAh"), hand("Kd5d") };
+		Board[] boards = { board("As2d7h"), board("Kc9c4c2h"), board("8s4d3d2d9h"), board("Ad5c6h") };
+		int[] out = new int[4];
+		
+		// rank every hand on one board
+		eval.rankAll(hands, boards[2], out);
+		for (int i = 0; i < hands.length; i++) {
+			assertEquals(eval.rank(hands[i], boards[2]), out[i]);
+		}
+		
+		// rank one hand on every board
+		eval.rankAll(hands[3], boards, out);
+		for (int i = 0; i < boards.length; i++) {
+			assertEquals(eval.rank(hands[3], boards[i]), out[i]);
+		}
+	}
+
 	@Test
 	public void testValueRanking() {
 		Evaluator eval = new DefaultEvaluator();		
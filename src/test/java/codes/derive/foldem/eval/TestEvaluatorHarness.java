@@ -0,0 +1,49 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+public class TestEvaluatorHarness {
+
+	@Test
+	public void testFiveCardHands() {
+		Evaluator reference = new DefaultEvaluator();
+		for (Map.Entry<String, Evaluator> entry : EvaluatorHarness.evaluators().entrySet()) {
+			EvaluatorHarness.Result result = EvaluatorHarness.check(reference, entry.getValue(), 5);
+			assertEquals(2598960, result.hands());
+			assertEquals(entry.getKey() + ": " + result, 0, result.mismatches());
+		}
+	}
+
+	@Test
+	public void testDetectsMismatches() {
+		Evaluator broken = new DefaultEvaluator() {
+			@Override
+			public int rank(long cards) {
+				return cards == 0x1F ? 0 : super.rank(cards);
+			}
+		};
+		EvaluatorHarness.Result result = EvaluatorHarness.check(new DefaultEvaluator(), broken, 5);
+		assertEquals(1, result.mismatches());
+	}
+
+}
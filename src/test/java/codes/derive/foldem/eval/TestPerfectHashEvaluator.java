@@ -0,0 +1,131 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import static codes.derive.foldem.Poker.*;
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.Test;
+
+import codes.derive.foldem.Deck;
+import codes.derive.foldem.Hand;
+import codes.derive.foldem.board.Board;
+import codes.derive.foldem.board.Street;
+
+public class TestPerfectHashEvaluator {
+
+	@Test
+	public void testEvaluation() {
+		Evaluator eval = new PerfectHashEvaluator();
+		Board board = board("As2d7h");
+		assertEquals(3414, eval.rank(hand("AcQs"), board));
+		assertEquals(5979, eval.rank(hand("2cQh"), board));
+		assertEquals(1664, eval.rank(hand("AcAh"), board));
+		assertEquals(9, eval.rank(hand("Ad5d"), board("8s4d3d2d9s")));
+	}
+
+	@Test
+	public void testMatchesDefaultEvaluator() {
+		Evaluator expected = new DefaultEvaluator();
+		Evaluator eval = new PerfectHashEvaluator();
+
+		// compare random hands on every postflop street
+		Random random = new Random(0);
+		for (int i = 0; i < 20000; i++) {
+			for (Street street : new Street[] { Street.FLOP, Street.TURN, Street.RIVER }) {
+				Deck deck = deck().shuffle(random);
+				Hand hand = hand(deck);
+				Board board = board(deck, street);
+				assertEquals(expected.rank(hand, board), eval.rank(hand, board));
+			}
+		}
+	}
+
+	@Test
+	public void testPreparedBoard() {
+		Evaluator eval = new PerfectHashEvaluator();
+		for (Board board : new Board[] { board("As2d7h"), board("Kc9c4c2h"), board("8s4d3d2d9s") }) {
+			PreparedBoard prepared = eval.prepare(board);
+			for (Hand hand : hands()) {
+				if (Collections.disjoint(hand.cards(), board.cards())) {
+					assertEquals(eval.rank(hand, board), prepared.rank(hand));
+					assertEquals(eval.value(hand, board), prepared.value(hand));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBatchRanking() {
+		Evaluator eval = new PerfectHashEvaluator();
+		Hand[] hands = { hand("AcQs"), hand("9c7s"), hand("AcAh"), hand("Kd5d") };
+		Board[] boards = { board("As2d7h"), board("Kc9c4c2h"), board("8s4d3d2d9h"), board("Ad5c6h") };
+		int[] out = new int[4];
+		
+		// rank every hand on one board
+		eval.rankAll(hands, boards[2], out);
+		for (int i = 0; i < hands.length; i++) {
+			assertEquals(eval.rank(hands[i], boards[2]), out[i]);
+		}
+		
+		// rank one hand on every board
+		eval.rankAll(hands[3], boards, out);
+		for (int i = 0; i < boards.length; i++) {
+			assertEquals(eval.rank(hands[3], boards[i]), out[i]);
+		}
+	}
+
+	@Test
+	public void testRepeatedCards() {
+		Evaluator eval = new PerfectHashEvaluator();
+		int[] cards = { card("As").index(), card("As").index(), card("Ah").index(), card("Ad").index(),
+				card("Ac").index(), card("Ks").index(), card("Kh").index() };
+		assertRejected(() -> eval.rank(cards, cards.length));
+		assertRejected(() -> eval.rank(hand("AsKs"), board("As2d7h")));
+		assertRejected(() -> eval.rankAll(hand("AsKs"), new Board[] { board("As2d7h") }, new int[1]));
+		assertRejected(() -> eval.prepare(board("As2d7h")).rank(hand("AsKs")));
+	}
+
+	@Test
+	public void testValueRanking() {
+		Evaluator eval = new PerfectHashEvaluator();
+		assertEquals(HandValue.HIGH_CARD, eval.value(hand("AcTs"), board("2hQs4d")));
+		assertEquals(HandValue.FLUSH, eval.value(hand("AcTc"), board("2cQc4c")));
+		assertEquals(HandValue.FULL_HOUSE, eval.value(hand("AcTs"), board("ThTdAh")));
+		assertEquals(HandValue.STRAIGHT_FLUSH, eval.value(hand("AcTc"), board("JcQcKc")));
+	}
+
+	/**
+	 * Asserts that the specified ranking is rejected with an
+	 * {@link IllegalArgumentException}.
+	 * 
+	 * @param ranking
+	 *            The ranking.
+	 */
+	private static void assertRejected(Runnable ranking) {
+		try {
+			ranking.run();
+			fail("Ranked a hand with a repeated card");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+import org.junit.Test;
+
+public class TestRankTable {
+
+	@Test
+	public void testRead() throws IOException {
+		RankTable table = RankTable.read(ByteBuffer.wrap(resource()));
+		
+		// the royal flush should be the first rank
+		assertEquals(0, table.rank(41 * 37 * 31 * 29 * 23 | 0x80000000));
+	}
+	
+	@Test
+	public void testLoadTime() {
+		assertTrue(DefaultEvaluator.loadTime() > 0);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testChecksumMismatch() throws IOException {
+		byte[] data = resource();
+		data[data.length - 1]++;
+		RankTable.read(ByteBuffer.wrap(data));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnexpectedData() throws IOException {
+		
+		// swap the first two ranks, keeping the table's own checksum consistent
+		ByteBuffer data = ByteBuffer.wrap(resource());
+		int first = data.getInt(16);
+		data.putInt(16, data.getInt(20));
+		data.putInt(20, first);
+		CRC32 crc = new CRC32();
+		crc.update(data.array(), 16, data.capacity() - 16);
+		data.putInt(12, (int) crc.getValue());
+		RankTable.read(data);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedVersion() throws IOException {
+		byte[] data = resource();
+		data[7]++;
+		RankTable.read(ByteBuffer.wrap(data));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testLegacyFormat() throws IOException {
+		byte[] data = resource();
+		ByteBuffer legacy = ByteBuffer.wrap(data, 16, data.length - 16);
+		RankTable.read(legacy.slice());
+	}
+	
+	private static byte[] resource() throws IOException {
+		try (InputStream in = RankTable.class.getResourceAsStream(RankTable.FILE_NAME)) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			for (int read; (read = in.read(buffer)) != -1;) {
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		}
+	}
+	
+}
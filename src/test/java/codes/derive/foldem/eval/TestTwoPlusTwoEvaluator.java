@@ -0,0 +1,195 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.eval;
+
+import static codes.derive.foldem.Poker.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import codes.derive.foldem.Card;
+import codes.derive.foldem.Deck;
+import codes.derive.foldem.Hand;
+import codes.derive.foldem.board.Board;
+import codes.derive.foldem.board.Street;
+
+public class TestTwoPlusTwoEvaluator {
+
+	@Test
+	public void testFallback() throws IOException {
+		Path dir = Files.createTempDirectory("foldem");
+		try {
+			TwoPlusTwoEvaluator eval = new TwoPlusTwoEvaluator(dir.resolve(TwoPlusTwoEvaluator.FILE_NAME));
+			assertFalse(eval.mapped());
+
+			Board board = board("As2d7h");
+			assertEquals(3414, eval.rank(hand("AcQs"), board));
+			assertEquals(5979, eval.rank(hand("2dQh"), board));
+			assertEquals(9, eval.rank(hand("Ad5d"), board("8s4d3d2d9s")));
+		} finally {
+			Files.delete(dir);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidTable() throws IOException {
+		Path path = Files.createTempFile("foldem", TwoPlusTwoEvaluator.FILE_NAME);
+		try {
+			Files.write(path, new byte[] { 'R', 'A', 'N', 'K', 0, 0, 0, 1 });
+			new TwoPlusTwoEvaluator(path);
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void testMappedTable() throws IOException {
+		long cards = Card.mask(cards("AsKs7h7c2s9sTs"));
+		Path path = Files.createTempFile("foldem", TwoPlusTwoEvaluator.FILE_NAME);
+		try {
+			write(path, cards, RankTable.CHECKSUM);
+			TwoPlusTwoEvaluator eval = new TwoPlusTwoEvaluator(path);
+			assertTrue(eval.mapped());
+
+			// walk every 5, 6 and 7 card subset of our cards
+			Evaluator expected = new DefaultEvaluator();
+			for (long mask = cards; mask != 0; mask = (mask - 1) & cards) {
+				if (Long.bitCount(mask) >= 5) {
+					assertEquals(expected.rank(mask), eval.rank(mask));
+				}
+			}
+
+			// prepared boards and batches walk the board first
+			Board[] boards = { board("As7h2s"), board("As7h2s9s"), board("As7h2s9sTs") };
+			for (Board board : boards) {
+				assertEquals(expected.rank(hand("7cKs"), board), eval.prepare(board).rank(hand("7cKs")));
+			}
+			assertEquals(expected.rank(hand("KsTs"), boards[1]), eval.prepare(boards[1]).rank(hand("KsTs")));
+			int[] ranks = new int[boards.length];
+			eval.rankAll(hand("7cKs"), boards, ranks);
+			for (int i = 0; i < boards.length; i++) {
+				assertEquals(expected.rank(hand("7cKs"), boards[i]), ranks[i]);
+			}
+
+			// repeated cards are left to the fallback evaluator
+			assertEquals(expected.rank(hand("2sQh"), boards[0]), eval.prepare(boards[0]).rank(hand("2sQh")));
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOtherRankData() throws IOException {
+		Path path = Files.createTempFile("foldem", TwoPlusTwoEvaluator.FILE_NAME);
+		try {
+			write(path, Card.mask(cards("AsKs7h7c2s9sTs")), ~RankTable.CHECKSUM);
+			new TwoPlusTwoEvaluator(path);
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	/*
+	 * This test is currently disabled because it causes Travis to fail because
+	 * of CPU overuse, generating the table takes a while and around 130MB of
+	 * disk. If you have changed the generator you can re-activate it and run
+	 * it yourself, testMappedTable covers walking a table on every build.
+	 */
+	public void testGeneratedTable() throws IOException {
+		Path path = Files.createTempFile("foldem", TwoPlusTwoEvaluator.FILE_NAME);
+		try {
+			new TwoPlusTwoGenerator(new PerfectHashEvaluator()).generate(path);
+			TwoPlusTwoEvaluator eval = new TwoPlusTwoEvaluator(path);
+			assertTrue(eval.mapped());
+
+			// compare random hands on every postflop street
+			Evaluator expected = new DefaultEvaluator();
+			Random random = new Random(0);
+			for (int i = 0; i < 20000; i++) {
+				for (Street street : new Street[] { Street.FLOP, Street.TURN, Street.RIVER }) {
+					Deck deck = deck().shuffle(random);
+					Hand hand = hand(deck);
+					Board board = board(deck, street);
+					assertEquals(expected.rank(hand, board), eval.rank(hand, board));
+				}
+			}
+
+			// repeated cards are left to the fallback evaluator
+			Board board = board("As2d7h9c3s");
+			assertEquals(expected.rank(hand("2dQh"), board), eval.prepare(board).rank(hand("2dQh")));
+			assertEquals(expected.rank(hand("2dQh"), board), eval.rank(hand("2dQh"), board));
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	/**
+	 * Writes a state table holding only the states for subsets of the
+	 * specified cards, keeping every card's suit.
+	 * 
+	 * @param path
+	 *            The path to write the table to.
+	 * @param cards
+	 *            The mask of the cards the table can walk.
+	 * @param checksum
+	 *            The rank data checksum to write in the header.
+	 * @throws IOException
+	 *             If the table could not be written.
+	 */
+	private static void write(Path path, long cards, int checksum) throws IOException {
+		Evaluator evaluator = new DefaultEvaluator();
+
+		// number the states holding up to 6 cards, starting from the empty one
+		Map<Long, Integer> states = new HashMap<>();
+		states.put(0L, 0);
+		for (long mask = cards; mask != 0; mask = (mask - 1) & cards) {
+			if (Long.bitCount(mask) < 7) {
+				states.put(mask, states.size());
+			}
+		}
+
+		int size = TwoPlusTwoGenerator.STATE_SIZE;
+		int count = size + size * states.size();
+		ByteBuffer buffer = ByteBuffer.allocate(TwoPlusTwoEvaluator.HEADER_SIZE + count * Integer.BYTES)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(TwoPlusTwoEvaluator.MAGIC).putInt(TwoPlusTwoEvaluator.VERSION).putInt(checksum).putInt(count);
+		for (Map.Entry<Long, Integer> state : states.entrySet()) {
+			long mask = state.getKey();
+			int position = TwoPlusTwoEvaluator.HEADER_SIZE + (size + size * state.getValue()) * Integer.BYTES;
+			if (Long.bitCount(mask) >= 5) {
+				buffer.putInt(position, evaluator.rank(mask));
+			}
+			for (long m = cards & ~mask; m != 0; m &= m - 1) {
+				int card = Long.numberOfTrailingZeros(m);
+				long next = mask | 1L << card;
+				buffer.putInt(position + (card + 1) * Integer.BYTES,
+						Long.bitCount(next) == 7 ? evaluator.rank(next) : size + size * states.get(next));
+			}
+		}
+		Files.write(path, buffer.array());
+	}
+
+}
@@ -16,6 +16,66 @@
  */
 package codes.derive.foldem.hand;
 
+import static codes.derive.foldem.Poker.*;
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import codes.derive.foldem.Hand;
+
 public class HandGroupTest {
 
+	@Test
+	public void testGroups() {
+		Set<Hand> seen = new HashSet<>();
+		for (HandGroup group : HandGroup.all()) {
+			assertSame(group, HandGroup.of(group.toString()));
+			assertEquals(group.pair() ? 6 : group.suited() ? 4 : 12, group.hands().size());
+			for (Hand hand : group.hands()) {
+				assertSame(group, HandGroup.of(hand));
+				assertTrue(seen.add(hand));
+			}
+		}
+		assertEquals(1326, seen.size());
+	}
+
+	@Test
+	public void testRanking() {
+		List<HandGroup> ranked = HandGroup.ranked();
+		assertEquals(new HashSet<>(HandGroup.all()), new HashSet<>(ranked));
+		assertEquals("AA", ranked.get(0).toString());
+		assertEquals("32o", ranked.get(HandGroup.COUNT - 1).toString());
+		assertTrue(ranked.indexOf(HandGroup.of("AKs")) < ranked.indexOf(HandGroup.of("AKo")));
+	}
+
+	@Test
+	public void testLookup() {
+		assertEquals(0, HandGroup.of("AA").index());
+		assertEquals(1, HandGroup.of("AKs").index());
+		assertEquals(13, HandGroup.of("AKo").index());
+		assertEquals(168, HandGroup.of("22").index());
+		assertSame(HandGroup.of("AKs"), HandGroup.of("KAs"));
+		assertSame(HandGroup.of("Q2o"), HandGroup.of(hand("2cQh")));
+		assertTrue(HandGroup.of("T9s").contains(hand("Th9h")));
+		assertFalse(HandGroup.of("T9s").contains(hand("Th9c")));
+	}
+
+	@Test
+	public void testShorthand() {
+		assertEquals(6, handGroup("TT").size());
+		assertEquals(6, handGroup("TTo").size());
+		assertEquals(16, handGroup("AK").size());
+		assertEquals(4, handGroup("AKs").size());
+		assertEquals(12, handGroup("AKo").size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSuitedPair() {
+		HandGroup.of("AAs");
+	}
+
 }
@@ -16,27 +16,192 @@
  */
 package codes.derive.foldem.hand;
 
+import static codes.derive.foldem.Poker.*;
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
 import org.junit.Test;
 
+import codes.derive.foldem.Hand;
+import codes.derive.foldem.Range;
+
 public class HandRangeTest {
 
 	@Test
 	public void testWeightedRanges() {
-		/*HandRange range = new HandRange();
+		Range range = range(hand("AhAs"));
+		range.define(0.5, handGroup("KK"));
+		range.define(0.25, handGroup("QQ"));
 		
-		range.define(Foldem.hand("AhAs"));
+		assertEquals(13, range.size());
+		assertEquals(1.0 + 6 * 0.5 + 6 * 0.25, range.combos(), 1e-9);
+		assertEquals(0.5, range.weight(hand("KsKh")), 0.0);
 		
-		HandGroup kings = new BasicHandGroup("KK");
-		HandGroup queens = new BasicHandGroup("QQ");
+		// redefining a weighted hand replaces its weight
+		range.define(1.0, hand("KsKh"));
+		assertEquals(1.0, range.weight(hand("KsKh")), 0.0);
+		assertEquals(13, range.size());
 		
-		range.define(kings, 0.5);
-		range.define(queens, 0.5);
-		*/
+		// hands should be sampled in proportion to their weights
+		Random random = new Random(0);
+		int aces = 0, queens = 0;
+		for (int i = 0; i < 100000; i++) {
+			Hand hand = range.sample(random);
+			assertTrue(range.contains(hand));
+			if (hand.equals(hand("AhAs"))) {
+				aces++;
+			} else if (HandGroup.of("QQ").contains(hand)) {
+				queens++;
+			}
+		}
+		assertEquals(1.5 / range.combos(), queens / 100000.0, 0.01);
+		assertEquals(1.0 / range.combos(), aces / 100000.0, 0.01);
 	}
 	
 	@Test
 	public void testFixedRanges() {
+		Range range = range(hand("AhAs"), hand("KhKs"));
+		assertTrue(range.contains(hand("AsAh")));
+		assertFalse(range.contains(hand("AsAc")));
+		assertEquals(2, range.all().size());
+		assertEquals(range, range(hand("KsKh"), hand("AsAh")));
+		assertEquals(range.hashCode(), range(hand("KsKh"), hand("AsAh")).hashCode());
+	}
+
+	@Test
+	public void testSampling() {
+		Range range = range();
+		double[] weights = { 0.1, 0.2, 0.3, 0.4, 1.0 };
+		List<Hand> hands = HandGroup.of("AKs").hands();
+		for (int i = 0; i < hands.size(); i++) {
+			range.define(weights[i], hands.get(i));
+		}
+		range.define(weights[4], hand("2c2d"));
+		
+		// each hand should be sampled in proportion to its own weight
+		int[] counts = new int[5];
+		Random random = new Random(0);
+		for (int i = 0; i < 200000; i++) {
+			Hand hand = range.sample(random);
+			counts[hand.equals(hand("2c2d")) ? 4 : hands.indexOf(hand)]++;
+		}
+		for (int i = 0; i < counts.length; i++) {
+			assertEquals(weights[i] / range.combos(), counts[i] / 200000.0, 0.005);
+		}
+		
+		// the same seed should sample the same hands
+		Random a = new Random(1), b = new Random(1);
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(range.sample(a), range.sample(b));
+		}
+	}
+
+	@Test
+	public void testDeadCards() {
+		Range range = range().define(handGroup("AA")).define(0.5, handGroup("AKs"));
+		long dead = card("As").mask() | card("Ah").mask() | card("Kc").mask();
+		
+		// only AcAd and AdKd are left, every other hand has a dead card
+		assertEquals(1.0 + 0.5, range.combos(dead), 1e-9);
+		Random random = new Random(0);
+		int suited = 0;
+		for (int i = 0; i < 30000; i++) {
+			Hand hand = range.sample(random, dead);
+			assertEquals(0, hand.cardSet().mask() & dead);
+			if (hand.suited()) {
+				suited++;
+			}
+		}
+		assertEquals(0.5 / 1.5, suited / 30000.0, 0.01);
+	}
+
+	@Test
+	public void testAlgebra() {
+		Range open = range("QQ+, AK, 50%JJ");
+		Range threeBet = range("KK+, AKs, 25%QQ");
+
+		Range flat = open.minus(threeBet);
+		assertEquals(range("75%QQ, AKo, 50%JJ"), flat);
+		assertEquals(open, open.union(threeBet));
+		assertEquals(range("KK+, AKs, 25%QQ"), open.intersection(threeBet));
+		assertEquals(range("60%KK+, 30%JJ"), range("KK+, 50%JJ").scale(0.6));
+		assertEquals(range("KK+, 50%JJ"), range("50%KK+, 25%JJ").normalize());
+		assertEquals(range("80%KK+, 20%JJ"), range("KK+, 10%JJ").clamp(0.2, 0.8));
+		assertEquals(0, open.scale(0.0).size());
+
+		// AsAh, AsKs and AhKh use a card on the board
+		Range blocked = range("AA, AKs").without(board("AsAh2c").cardSet());
+		assertEquals(1 + 2, blocked.size());
+		assertFalse(blocked.contains(hand("AsKs")));
+		assertTrue(blocked.contains(hand("AdKd")));
+	}
+
+	@Test
+	public void testTop() {
+		Range all = range().define(Hand.all());
+		assertEquals(range("AA"), all.top(6 / 1326.0));
+		assertEquals(range("AA-99, 50%88"), all.top(39 / 1326.0));
+		assertEquals(0.15 * 1326, all.top(0.15).combos(), 1e-9);
+		assertEquals(all, all.top(1.0));
+
+		// only the part of a range that's left is ranked
+		assertEquals(range("KK, 50%QQ"), range("KK, QQ, 72o").top(9 / 24.0));
+	}
+
+	@Test
+	public void testFreeze() {
+		Range range = range("QQ+, 50%AKs");
+		Range frozen = range.freeze();
+		assertSame(frozen, frozen.freeze());
+		assertEquals(range, frozen);
+		assertEquals(frozen, range);
+		assertEquals(range.hashCode(), frozen.hashCode());
+		assertEquals(range.fingerprint(), frozen.fingerprint());
+
+		// frozen ranges work as keys for equal ranges built another way
+		Map<Range, String> keys = new HashMap<>();
+		keys.put(frozen, "QQ+");
+		assertEquals("QQ+", keys.get(range("AA, KK, QQ, AKs:0.5")));
+		assertNotEquals(frozen.fingerprint(), range("QQ+, AKs").fingerprint());
+		assertNotEquals(frozen, range("QQ+, AKs").freeze());
+
+		// the range can still be changed without changing its frozen copy
+		range.define(hand("2c2d"));
+		assertFalse(frozen.contains(hand("2c2d")));
+		assertNotEquals(range, frozen);
+		try {
+			frozen.define(hand("2c2d"));
+			fail("Changed a frozen range");
+		} catch (IllegalStateException e) {
+			// frozen ranges can't be changed
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDuplicateHand() {
+		range(hand("AhAs"), hand("AsAh"));
+	}
+	
+	@Test
+	public void testSnapshots() {
+		Range range = range(hand("AhAs"));
+		Range snapshot = range.snapshot();
+		range.define(hand("KhKs"));
 		
+		// the snapshot should not see changes made after it was taken
+		assertEquals(2, range.size());
+		assertEquals(1, snapshot.size());
+		assertFalse(snapshot.contains(hand("KhKs")));
+		try {
+			snapshot.define(hand("QhQs"));
+			fail("Changed a snapshot");
+		} catch (IllegalStateException e) {
+			// expected
+		}
 	}
 	
 }
@@ -21,8 +21,12 @@ import static codes.derive.foldem.Card.*;
 import static codes.derive.foldem.Suit.*;
 import static org.junit.Assert.*;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.junit.Test;
 
+import codes.derive.foldem.Constants;
 import codes.derive.foldem.Deck;
 import codes.derive.foldem.Hand;
 
@@ -46,5 +50,34 @@ public class TestHand {
 		assertTrue(hand.cards().contains(comparison.pop()));
 		assertTrue(hand.cards().contains(comparison.pop()));
 	}
-	
+
+	@Test
+	public void testIndices() {
+		Set<Hand> seen = new HashSet<>();
+		int i = 0;
+		for (Hand hand : hands()) {
+			assertEquals(i++, hand.index());
+			assertSame(hand, Hand.of(hand.index()));
+			assertTrue(seen.add(hand));
+		}
+		assertEquals(Constants.HAND_COUNT, seen.size());
+	}
+
+	@Test
+	public void testSharedInstances() {
+		assertSame(hand("QsAc"), hand(card("Qs"), card("Ac")));
+		assertEquals("QsAc", hand("QsAc").toString());
+
+		// both orders are the same hand, listed with the higher card first
+		assertEquals(hand("QsAc"), hand("AcQs"));
+		assertEquals(hand("QsAc").hashCode(), hand("AcQs").hashCode());
+		assertEquals(hand("AcQs"), Hand.of(hand("QsAc").index()));
+		assertEquals("AcQs", Hand.of(hand("QsAc").index()).toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRepeatedCard() {
+		hand("AsAs");
+	}
+
 }
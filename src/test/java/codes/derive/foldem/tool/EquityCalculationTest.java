@@ -21,8 +21,10 @@ import static org.junit.Assert.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-//import org.junit.Test;
+import org.junit.Test;
 
 import codes.derive.foldem.Hand;
 import codes.derive.foldem.Range;
@@ -128,4 +130,57 @@ public class EquityCalculationTest {
 		
 	}
 
+	@Test
+	public void testRangeOrder() {
+		Range a = range(hand("AsAh"), hand("KdKc"));
+		Range b = range(hand("AsQs"), hand("5d6c"));
+
+		// a wins one of the three deals without a card in common, whichever comes first
+		EquityCalculationBuilder bldr = calculationBuilder().useBoard(board("2c3d7h8s4h")).useSampleSize(30000);
+		assertEquals(1.0 / 3, bldr.calculate(a, b).get(a).win(), ERROR_MARGIN);
+		assertEquals(1.0 / 3, bldr.calculate(b, a).get(a).win(), ERROR_MARGIN);
+	}
+
+	@Test
+	public void testParallelism() {
+		Range a = range(hand("AcAh"), hand("QsQh"));
+		Range b = range(hand("KsKh"), hand("JsJh"));
+
+		// results should only depend on the input, not the number of threads
+		Map<Range, Equity> expected = calculationBuilder().useSampleSize(3000).calculate(a, b);
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			for (EquityCalculationBuilder bldr : new EquityCalculationBuilder[] {
+					calculationBuilder().useParallelism(4),
+					calculationBuilder().useExecutor(executor),
+					calculationBuilder().useExecutor(executor).useParallelism(7) }) {
+				Map<Range, Equity> equities = bldr.useSampleSize(3000).calculate(a, b);
+				for (Range range : new Range[] { a, b }) {
+					assertEquals(expected.get(range).win(), equities.get(range).win(), 0.0);
+					assertEquals(expected.get(range).lose(), equities.get(range).lose(), 0.0);
+					assertEquals(expected.get(range).split(), equities.get(range).split(), 0.0);
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testExecutorThread() throws Exception {
+		Range a = range(hand("AcAh"), hand("QsQh"));
+		Range b = range(hand("KsKh"), hand("JsJh"));
+
+		// calculating from the executor's only thread can't wait on tasks that never start
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			EquityCalculationBuilder bldr = calculationBuilder().useExecutor(executor).useParallelism(4);
+			Map<Range, Equity> equities = executor.submit(() -> bldr.useSampleSize(3000).calculate(a, b)).get();
+			Map<Range, Equity> expected = calculationBuilder().useSampleSize(3000).calculate(a, b);
+			assertEquals(expected.get(a).win(), equities.get(a).win(), 0.0);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
 }
@@ -0,0 +1,120 @@
+/*
+ * This file is part of Fold'em, a Java library for Texas Hold 'em Poker.
+ *
+ * Fold'em is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Fold'em is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Fold'em.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package codes.derive.foldem.util;
+
+import static codes.derive.foldem.Poker.*;
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import codes.derive.foldem.Card;
+import codes.derive.foldem.Hand;
+import codes.derive.foldem.Range;
+import codes.derive.foldem.board.Board;
+import codes.derive.foldem.board.Boards;
+
+public class TestBinaryCodec {
+
+	@Test
+	public void testCards() {
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		List<Card> cards = new ArrayList<>(cards("Kd2c7hAs9s"));
+		BinaryCodec.writeCard(buffer, card("Qh"));
+		BinaryCodec.writeCards(buffer, cards);
+		
+		// one byte for the card, then one for the length and 5 * 6 bits
+		assertEquals(1 + 1 + 4, buffer.position());
+		buffer.flip();
+		assertEquals(card("Qh"), BinaryCodec.readCard(buffer));
+		assertEquals(cards, BinaryCodec.readCards(buffer));
+	}
+
+	@Test
+	public void testHands() {
+		ByteBuffer buffer = ByteBuffer.allocate(BinaryCodec.HAND_BYTES * 1326);
+		for (Hand hand : hands()) {
+			BinaryCodec.writeHand(buffer, hand);
+		}
+		buffer.flip();
+		for (Hand hand : hands()) {
+			assertSame(hand, BinaryCodec.readHand(buffer));
+		}
+
+		// two bytes for the length, then 1326 * 11 bits
+		buffer.clear();
+		List<Hand> hands = new ArrayList<>(hands());
+		BinaryCodec.writeHands(buffer, hands);
+		assertEquals(2 + (1326 * 11 + 7) / 8, buffer.position());
+		buffer.flip();
+		assertEquals(hands, BinaryCodec.readHands(buffer));
+	}
+
+	@Test
+	public void testBoards() {
+		ByteBuffer buffer = ByteBuffer.allocate(BinaryCodec.BOARD_BYTES * 4);
+		Board[] boards = { Boards.board(), board("Kd2c7h"), board("Kd2c7hAs"), board("Kd2c7hAsKs") };
+		for (Board board : boards) {
+			BinaryCodec.writeBoard(buffer, board);
+		}
+		buffer.flip();
+		for (Board board : boards) {
+			Board read = BinaryCodec.readBoard(buffer);
+			assertEquals(board.getStreet(), read.getStreet());
+			assertEquals(board.cardSet(), read.cardSet());
+			
+			// the turn and river should keep their positions
+			List<Card> expected = new ArrayList<>(board.cards());
+			List<Card> actual = new ArrayList<>(read.cards());
+			for (int i = 3; i < expected.size(); i++) {
+				assertEquals(expected.get(i), actual.get(i));
+			}
+		}
+	}
+
+	@Test
+	public void testRanges() {
+		Range range = range(hand("AsAc"), hand("KsKh")).define(0.25, hand("7h2c")).define(0.3, hand("9s8s"));
+		ByteBuffer buffer = ByteBuffer.allocate(BinaryCodec.rangeBytes(range));
+		BinaryCodec.writeRange(buffer, range);
+		assertFalse(buffer.hasRemaining());
+		buffer.flip();
+		Range read = BinaryCodec.readRange(buffer);
+		assertEquals(4, read.all().size());
+		assertEquals(1.0, read.weight(hand("AsAc")), 0.0);
+		assertEquals(0.25, read.weight(hand("7h2c")), 0.0);
+		for (Hand hand : hands()) {
+			assertEquals(range.weight(hand), read.weight(hand), 1.0 / 65536);
+		}
+	}
+
+	@Test
+	public void testFullRange() {
+		Range range = range(hands().toArray(new Hand[0]));
+
+		// the hand mask followed by a full weight mark for every hand
+		assertEquals(166 + 166, BinaryCodec.rangeBytes(range));
+		ByteBuffer buffer = ByteBuffer.allocate(BinaryCodec.rangeBytes(range));
+		BinaryCodec.writeRange(buffer, range);
+		buffer.flip();
+		assertEquals(range, BinaryCodec.readRange(buffer));
+	}
+
+}